@@ -0,0 +1,58 @@
+package be.razerstorm.customcrafting.benchmarks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.inventory.ItemFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+// Минимальный сервер, чтобы создавать, хэшировать и сравнивать ItemStack без меты
+public final class BenchmarkServer {
+
+    private BenchmarkServer() {
+    }
+
+    public static synchronized void install() {
+        if (Bukkit.getServer() != null) return;
+
+        ItemFactory itemFactory = (ItemFactory) Proxy.newProxyInstance(ItemFactory.class.getClassLoader(), new Class<?>[]{ItemFactory.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("equals") && args != null && args.length == 2) {
+                        return args[0] == args[1];
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+
+        Logger logger = Logger.getLogger("Benchmark");
+        Server server = (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[]{Server.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getItemFactory":
+                            return itemFactory;
+                        case "getLogger":
+                            return logger;
+                        case "getName":
+                        case "getVersion":
+                        case "getBukkitVersion":
+                            return "Benchmark";
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+
+        Bukkit.setServer(server);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0D;
+        if (type == float.class) return 0F;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return (char) 0;
+        return null;
+    }
+}
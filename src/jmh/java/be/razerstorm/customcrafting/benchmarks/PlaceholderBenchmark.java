@@ -0,0 +1,53 @@
+package be.razerstorm.customcrafting.benchmarks;
+
+import be.razerstorm.customcrafting.objects.MessageTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Рендер скомпилированных шаблонов, как в MessageManager#getMessage, по сообщению на имя рецепта
+@State(Scope.Thread)
+public class PlaceholderBenchmark {
+
+    private static final MessageTemplate LIST_ITEM = MessageTemplate.compile("&7- &f{name}");
+    private static final MessageTemplate RECIPE_INFO = MessageTemplate.compile("&7Name: &f{name} &7Type: &f{type} &7Time: &f{time}s");
+
+    @Param({"100", "10000", "100000"})
+    private int corpusSize;
+
+    private List<String> names;
+    private int next;
+
+    @Setup
+    public void setup() {
+        names = RecipeCorpus.names(corpusSize);
+    }
+
+    @Benchmark
+    public String singlePlaceholder() {
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("name", nextName());
+        return LIST_ITEM.render(placeholders);
+    }
+
+    @Benchmark
+    public String threePlaceholders() {
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("name", nextName());
+        placeholders.put("type", "CRAFTING");
+        placeholders.put("time", "5");
+        return RECIPE_INFO.render(placeholders);
+    }
+
+    private String nextName() {
+        String name = names.get(next);
+        next = (next + 1) % names.size();
+        return name;
+    }
+}
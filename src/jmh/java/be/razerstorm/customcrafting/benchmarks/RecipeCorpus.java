@@ -0,0 +1,94 @@
+package be.razerstorm.customcrafting.benchmarks;
+
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Детерминированные рецепты, чтобы прогоны одного размера были сравнимы между релизами
+public final class RecipeCorpus {
+
+    private static final Material[] MATERIALS = {
+            Material.STICK, Material.EMERALD, Material.DIAMOND, Material.IRON_INGOT, Material.GOLD_INGOT,
+            Material.COAL, Material.REDSTONE, Material.OAK_PLANKS, Material.COBBLESTONE, Material.STRING
+    };
+
+    private static final Material[] OUTPUTS = {
+            Material.DIAMOND_PICKAXE, Material.IRON_SWORD, Material.GOLDEN_APPLE, Material.BOW, Material.SHIELD
+    };
+
+    private RecipeCorpus() {
+    }
+
+    public static String name(int index) {
+        return "recipe_" + index;
+    }
+
+    public static List<String> names(int size) {
+        List<String> names = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            names.add(name(i));
+        }
+        return names;
+    }
+
+    // Сетки 3x3 построчно, null для пустого слота
+    public static List<Material[]> grids(int size) {
+        Random random = new Random(size);
+        List<Material[]> grids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Material[] grid = new Material[9];
+            for (int slot = 0; slot < grid.length; slot++) {
+                if (random.nextInt(3) != 0) {
+                    grid[slot] = MATERIALS[random.nextInt(MATERIALS.length)];
+                }
+            }
+            grids.add(grid);
+        }
+        return grids;
+    }
+
+    public static Map<String, CustomRecipe> recipes(int size) {
+        BenchmarkServer.install();
+
+        Map<String, CustomRecipe> recipes = new LinkedHashMap<>();
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            recipes.put(name(i), recipe(name(i), random));
+        }
+        return recipes;
+    }
+
+    public static CustomRecipe recipe(String name, Random random) {
+        ItemStack output = new ItemStack(OUTPUTS[random.nextInt(OUTPUTS.length)], 1 + random.nextInt(4));
+
+        if (random.nextInt(4) == 0) {
+            ItemStack ingredient = new ItemStack(MATERIALS[random.nextInt(MATERIALS.length)]);
+            return CustomRecipe.furnace(name, output, ingredient, random.nextInt(10), 100 + random.nextInt(200));
+        }
+
+        HashMap<Character, ItemStack> ingredients = new HashMap<>();
+        StringBuilder shape = new StringBuilder();
+        for (int slot = 0; slot < 9; slot++) {
+            if (random.nextInt(3) == 0) {
+                shape.append(' ');
+                continue;
+            }
+            char letter = (char) ('A' + random.nextInt(4));
+            ingredients.computeIfAbsent(letter, key -> new ItemStack(MATERIALS[random.nextInt(MATERIALS.length)]));
+            shape.append(letter);
+        }
+        if (ingredients.isEmpty()) {
+            ingredients.put('A', new ItemStack(Material.STICK));
+            shape.setCharAt(4, 'A');
+        }
+
+        return CustomRecipe.crafting(name, output, ingredients, shape.substring(0, 3), shape.substring(3, 6), shape.substring(6, 9));
+    }
+}
@@ -0,0 +1,110 @@
+package be.razerstorm.customcrafting.benchmarks;
+
+import be.razerstorm.customcrafting.enums.RecipeType;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.objects.RecipeDiff;
+import be.razerstorm.customcrafting.objects.RecipeMatcher;
+import be.razerstorm.customcrafting.objects.RecipeNameIndex;
+import be.razerstorm.customcrafting.utils.Utils;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Поиск рецептов по префиксу имени (дополнение), по содержимому (перезагрузка) и по сетке (крафт)
+@State(Scope.Thread)
+public class RecipeMatchingBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int corpusSize;
+
+    private List<String> names;
+    private RecipeNameIndex nameIndex;
+    private Map<String, CustomRecipe> live;
+    private Map<String, CustomRecipe> reloaded;
+    private RecipeMatcher matcher;
+    // Сетки рецептов корпуса и случайные сетки, которые почти ничего не крафтят
+    private List<ItemStack[]> hits;
+    private List<ItemStack[]> misses;
+    private int next;
+    private int nextGrid;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        names = RecipeCorpus.names(corpusSize);
+        nameIndex = RecipeNameIndex.of(names);
+        live = RecipeCorpus.recipes(corpusSize);
+
+        // То же содержимое в новых объектах с одним изменённым рецептом, как перезагрузка после одной правки
+        reloaded = new LinkedHashMap<>(RecipeCorpus.recipes(corpusSize));
+        String changed = RecipeCorpus.name(corpusSize / 2);
+        reloaded.put(changed, RecipeCorpus.recipe(changed, new Random(-1)));
+
+        matcher = RecipeMatcher.of(live.values());
+        hits = new ArrayList<>();
+        for (CustomRecipe recipe : live.values()) {
+            if (recipe.getType() == RecipeType.CRAFTING) hits.add(matrix(recipe));
+        }
+        misses = new ArrayList<>(corpusSize);
+        for (Material[] grid : RecipeCorpus.grids(corpusSize)) {
+            ItemStack[] matrix = new ItemStack[grid.length];
+            for (int slot = 0; slot < grid.length; slot++) {
+                if (grid[slot] != null) matrix[slot] = new ItemStack(grid[slot]);
+            }
+            misses.add(matrix);
+        }
+    }
+
+    @Benchmark
+    public List<String> prefixMatch() {
+        return Utils.filterByPrefix(names, nextPrefix());
+    }
+
+    @Benchmark
+    public List<String> indexedPrefixMatch() {
+        return nameIndex.complete(nextPrefix(), 100);
+    }
+
+    @Benchmark
+    public RecipeDiff contentDiff() {
+        return RecipeDiff.compute(live, reloaded);
+    }
+
+    @Benchmark
+    public CustomRecipe gridMatch() {
+        return matcher.match(hits.get(nextGrid++ % hits.size()));
+    }
+
+    @Benchmark
+    public CustomRecipe gridMiss() {
+        return matcher.match(misses.get(nextGrid++ % misses.size()));
+    }
+
+    private static ItemStack[] matrix(CustomRecipe recipe) {
+        ItemStack[] matrix = new ItemStack[9];
+        String[] shape = recipe.getShape();
+        for (int row = 0; row < shape.length; row++) {
+            for (int column = 0; column < shape[row].length(); column++) {
+                ItemStack ingredient = recipe.getIngredients().get(shape[row].charAt(column));
+                if (ingredient != null) matrix[row * 3 + column] = ingredient.clone();
+            }
+        }
+        return matrix;
+    }
+
+    private String nextPrefix() {
+        String name = names.get(next);
+        next = (next + 1) % names.size();
+        return name.substring(0, Math.min(9, name.length()));
+    }
+}
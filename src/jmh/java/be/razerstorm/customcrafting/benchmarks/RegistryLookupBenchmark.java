@@ -0,0 +1,48 @@
+package be.razerstorm.customcrafting.benchmarks;
+
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.objects.RecipeRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+// Поиск и copy-on-write правки реестра рецептов
+@State(Scope.Thread)
+public class RegistryLookupBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int corpusSize;
+
+    private RecipeRegistry registry;
+    private CustomRecipe edited;
+    private int next;
+
+    @Setup
+    public void setup() {
+        registry = RecipeRegistry.of(RecipeCorpus.recipes(corpusSize));
+        edited = RecipeCorpus.recipe(RecipeCorpus.name(0), new Random(-1));
+    }
+
+    @Benchmark
+    public CustomRecipe lookup() {
+        CustomRecipe recipe = registry.get(RecipeCorpus.name(next));
+        next = (next + 1) % corpusSize;
+        return recipe;
+    }
+
+    @Benchmark
+    public boolean exists() {
+        boolean exists = registry.contains(RecipeCorpus.name(next));
+        next = (next + 1) % corpusSize;
+        return exists;
+    }
+
+    @Benchmark
+    public RecipeRegistry edit() {
+        return registry.with(edited);
+    }
+}
@@ -0,0 +1,48 @@
+package be.razerstorm.customcrafting.benchmarks;
+
+import be.razerstorm.customcrafting.utils.ShapeExtractor;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+// Извлечение формы и раздача букв ингредиентам, как в ManageRecipeMenu#getRecipeInfo
+@State(Scope.Thread)
+public class ShapeExtractionBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int corpusSize;
+
+    private List<Material[]> grids;
+    private int next;
+
+    @Setup
+    public void setup() {
+        grids = RecipeCorpus.grids(corpusSize);
+    }
+
+    @Benchmark
+    public String[] extractShape() {
+        return new ShapeExtractor<Material>().extract(nextGrid());
+    }
+
+    @Benchmark
+    public char allocateLetters() {
+        ShapeExtractor<Material> extractor = new ShapeExtractor<>();
+        char last = ' ';
+        for (Material material : nextGrid()) {
+            if (material != null) last = extractor.getLetter(material);
+        }
+        return last;
+    }
+
+    private Material[] nextGrid() {
+        Material[] grid = grids.get(next);
+        next = (next + 1) % grids.size();
+        return grid;
+    }
+}
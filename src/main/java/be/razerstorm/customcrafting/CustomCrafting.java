@@ -2,20 +2,37 @@ package be.razerstorm.customcrafting;
 
 import be.razerstorm.customcrafting.commands.CustomCraftingCommand;
 import be.razerstorm.customcrafting.listeners.AdminJoinListener;
+import be.razerstorm.customcrafting.listeners.AsyncTabCompleteListener;
+import be.razerstorm.customcrafting.listeners.CraftingMatcherListener;
+import be.razerstorm.customcrafting.listeners.DiscoveryListener;
+import be.razerstorm.customcrafting.listeners.PermissionListener;
 import be.razerstorm.customcrafting.managers.MessageManager;
 import be.razerstorm.customcrafting.managers.RecipeManager;
+import be.razerstorm.customcrafting.storage.ConfigRecipeStorage;
 import be.razerstorm.customcrafting.utils.GUIHolder;
 import be.razerstorm.customcrafting.utils.Metrics;
 import be.razerstorm.customcrafting.utils.UpdateChecker;
 import lombok.Getter;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
 public final class CustomCrafting extends JavaPlugin {
 
     private static @Getter CustomCrafting instance;
     private @Getter boolean lastVersion;
 
+    // config.yml без секции recipes, рецепты читаются только через хранилище
+    private volatile FileConfiguration settings;
+    private FileConfiguration defaults;
+
     @Override
     public void onEnable() {
         instance = this;
@@ -25,17 +42,76 @@ public final class CustomCrafting extends JavaPlugin {
         MessageManager.getInstance().loadMessages();
         GUIHolder.init(this);
 
-        if (getConfig().getBoolean("update-checker")) UpdateChecker.getInstance().checkForUpdate();
-
         CustomCraftingCommand commandExecutor = new CustomCraftingCommand();
         PluginCommand command = getCommand("customcrafting");
         if (command != null) {
             command.setExecutor(commandExecutor);
             command.setTabCompleter(commandExecutor);
+            AsyncTabCompleteListener.register(this, command, commandExecutor);
         }
 
         getServer().getPluginManager().registerEvents(new AdminJoinListener(), this);
+        CraftingMatcherListener.register(this);
+        getServer().getPluginManager().registerEvents(new DiscoveryListener(), this);
+        getServer().getPluginManager().registerEvents(new PermissionListener(), this);
+
+        // Настройки читает загрузчик рецептов вне главного потока, они применяются в конце каждой загрузки
+        RecipeManager.getInstance().loadRecipes().thenRun(() -> {
+            if (getConfig().getBoolean("update-checker")) UpdateChecker.getInstance().checkForUpdate();
+        });
+    }
+
+    @Override
+    public void onDisable() {
+        RecipeManager.getInstance().shutdown();
+    }
+
+    @Override
+    public FileConfiguration getConfig() {
+        if (settings == null) reloadConfig();
+        return settings;
+    }
 
-        RecipeManager.getInstance().loadRecipes();
+    @Override
+    public void reloadConfig() {
+        settings = readSettings(YamlConfiguration.loadConfiguration(new File(getDataFolder(), "config.yml")));
+    }
+
+    public void setSettings(FileConfiguration settings) {
+        this.settings = settings;
+    }
+
+    // Копирует всё, кроме рецептов, из разобранного config.yml и добавляет дефолты, можно вызывать вне главного потока
+    public FileConfiguration readSettings(ConfigurationSection document) {
+        YamlConfiguration settings = new YamlConfiguration();
+        copySettings(document, settings);
+        settings.setDefaults(getDefaults());
+        return settings;
+    }
+
+    private synchronized FileConfiguration getDefaults() {
+        if (defaults == null) {
+            defaults = new YamlConfiguration();
+            InputStream bundled = getResource("config.yml");
+            if (bundled != null) {
+                copySettings(YamlConfiguration.loadConfiguration(new InputStreamReader(bundled, StandardCharsets.UTF_8)), defaults);
+            }
+        }
+        return defaults;
+    }
+
+    private static void copySettings(ConfigurationSection from, ConfigurationSection to) {
+        for (String key : from.getKeys(false)) {
+            if (key.equals(ConfigRecipeStorage.SECTION)) continue;
+
+            Object value = from.get(key);
+            if (!(value instanceof ConfigurationSection)) {
+                to.set(key, value);
+                continue;
+            }
+            ((ConfigurationSection) value).getValues(true).forEach((path, nested) -> {
+                if (!(nested instanceof ConfigurationSection)) to.set(key + "." + path, nested);
+            });
+        }
     }
 }
\ No newline at end of file
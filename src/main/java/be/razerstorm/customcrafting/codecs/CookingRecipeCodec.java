@@ -0,0 +1,129 @@
+package be.razerstorm.customcrafting.codecs;
+
+import be.razerstorm.customcrafting.enums.RecipeType;
+import be.razerstorm.customcrafting.inventories.MenuLayout;
+import be.razerstorm.customcrafting.managers.LayoutManager;
+import be.razerstorm.customcrafting.managers.MessageManager;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.objects.IngredientMatch;
+import be.razerstorm.customcrafting.utils.ItemBuilder;
+import com.cryptomorin.xseries.XMaterial;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.inventory.RecipeChoice;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Печь, плавильня, коптильня и костёр: один ингредиент, опыт и время готовки в тиках
+public class CookingRecipeCodec implements RecipeCodec {
+
+    private static final int INFO_SLOT = 19;
+
+    private final ServerRecipeFactory factory;
+    private final XMaterial icon;
+
+    public CookingRecipeCodec(ServerRecipeFactory factory, XMaterial icon) {
+        this.factory = factory;
+        this.icon = icon;
+    }
+
+    @Override
+    public CustomRecipe read(String name, RecipeType type, ItemStack output, ConfigurationSection section) {
+        if (section.get("ingredient") == null ||
+                section.get("experience") == null ||
+                section.get("cookingTime") == null) {
+            return null;
+        }
+
+        ItemStack ingredient = (ItemStack) section.get("ingredient");
+        int experience = section.getInt("experience");
+        int cookingTime = section.getInt("cookingTime");
+
+        return CustomRecipe.cooking(type, name, output, ingredient, experience, cookingTime);
+    }
+
+    @Override
+    public void write(ConfigurationSection section, CustomRecipe recipe) {
+        section.set("ingredient", recipe.getIngredient());
+        section.set("experience", recipe.getExperience());
+        section.set("cookingTime", recipe.getCookingTime());
+    }
+
+    @Override
+    public CustomRecipe readCache(String name, RecipeType type, ItemStack output, ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ItemStack ingredient = (ItemStack) in.readObject();
+        return CustomRecipe.cooking(type, name, output, ingredient, in.readInt(), in.readInt());
+    }
+
+    @Override
+    public void writeCache(ObjectOutputStream out, CustomRecipe recipe) throws IOException {
+        out.writeObject(recipe.getIngredient());
+        out.writeInt(recipe.getExperience());
+        out.writeInt(recipe.getCookingTime());
+    }
+
+    @Override
+    public Recipe toServerRecipe(CustomRecipe recipe, NamespacedKey key, boolean exact) {
+        RecipeChoice input = IngredientMatch.EXACT.toChoice(recipe.getIngredient(), true);
+        return factory.create(key, recipe.getOutput(), input, recipe.getExperience(), recipe.getCookingTime());
+    }
+
+    @Override
+    public List<ItemStack> getInputs(CustomRecipe recipe) {
+        return Collections.singletonList(recipe.getIngredient());
+    }
+
+    @Override
+    public MenuLayout getManageLayout() {
+        return LayoutManager.getInstance().getManageFurnace();
+    }
+
+    @Override
+    public MenuLayout getViewLayout() {
+        return LayoutManager.getInstance().getViewFurnace();
+    }
+
+    @Override
+    public void fill(Inventory inventory, CustomRecipe recipe) {
+        inventory.setItem(LayoutManager.FURNACE_INPUT_SLOT, recipe.getIngredient().clone());
+    }
+
+    @Override
+    public void decorateView(Inventory inventory, CustomRecipe recipe) {
+        MessageManager msg = MessageManager.getInstance();
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("experience", String.valueOf(recipe.getExperience()));
+        placeholders.put("time", String.valueOf(recipe.getCookingTime() / 20));
+
+        ItemStack info = new ItemBuilder(icon.parseMaterial())
+                .setColoredName(msg.getMessage("items.furnace-info.name"))
+                .setLore(msg.getMessageList("items.furnace-info.lore", placeholders).toArray(new String[0]))
+                .toItemStack();
+        inventory.setItem(INFO_SLOT, info);
+    }
+
+    @Override
+    public boolean isComplete(Inventory inventory) {
+        ItemStack ingredient = inventory.getItem(LayoutManager.FURNACE_INPUT_SLOT);
+        return ingredient != null && ingredient.getType() != Material.AIR;
+    }
+
+    @Override
+    public CustomRecipe fromMenu(String name, RecipeType type, ItemStack output, Inventory inventory, CustomRecipe existing, int experience, int cookingTime) {
+        return CustomRecipe.cooking(type, name, output, inventory.getItem(LayoutManager.FURNACE_INPUT_SLOT), experience, cookingTime);
+    }
+
+    public interface ServerRecipeFactory {
+        Recipe create(NamespacedKey key, ItemStack output, RecipeChoice input, float experience, int cookingTime);
+    }
+}
@@ -0,0 +1,230 @@
+package be.razerstorm.customcrafting.codecs;
+
+import be.razerstorm.customcrafting.enums.MatchMode;
+import be.razerstorm.customcrafting.enums.RecipeType;
+import be.razerstorm.customcrafting.inventories.MenuLayout;
+import be.razerstorm.customcrafting.managers.LayoutManager;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.objects.IngredientMatch;
+import be.razerstorm.customcrafting.utils.ShapeExtractor;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.inventory.ShapedRecipe;
+import org.bukkit.inventory.ShapelessRecipe;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Крафт по форме и без формы: форма, ингредиенты и их режимы сравнения
+public class GridRecipeCodec implements RecipeCodec {
+
+    @Override
+    public CustomRecipe read(String name, RecipeType type, ItemStack output, ConfigurationSection section) {
+        ConfigurationSection ingredientsSection = section.getConfigurationSection("ingredients");
+        if (ingredientsSection == null || section.get("shape") == null) {
+            return null;
+        }
+
+        String[] shape = section.getStringList("shape").toArray(new String[0]);
+        HashMap<Character, ItemStack> ingredients = new HashMap<>();
+
+        ingredientsSection.getKeys(false).forEach(ingredientKey ->
+                ingredients.put(ingredientKey.charAt(0), (ItemStack) ingredientsSection.get(ingredientKey))
+        );
+
+        HashMap<Character, IngredientMatch> matches = new HashMap<>();
+        ConfigurationSection matchSection = section.getConfigurationSection("match");
+        if (matchSection != null) {
+            for (String ingredientKey : matchSection.getKeys(false)) {
+                IngredientMatch match = readMatch(matchSection, ingredientKey);
+                if (match == null) {
+                    return null;
+                }
+                matches.put(ingredientKey.charAt(0), match);
+            }
+        }
+
+        return CustomRecipe.grid(type, name, output, ingredients, matches, shape);
+    }
+
+    @Override
+    public void write(ConfigurationSection section, CustomRecipe recipe) {
+        section.set("shape", recipe.getShape());
+        recipe.getIngredients().forEach((identifier, ingredient) ->
+                section.set("ingredients." + identifier, ingredient)
+        );
+        recipe.getMatches().forEach((identifier, match) -> writeMatch(section, "match." + identifier, match));
+    }
+
+    @Override
+    public CustomRecipe readCache(String name, RecipeType type, ItemStack output, ObjectInputStream in) throws IOException, ClassNotFoundException {
+        String[] shape = new String[in.readInt()];
+        for (int i = 0; i < shape.length; i++) {
+            shape[i] = in.readUTF();
+        }
+
+        int ingredientCount = in.readInt();
+        HashMap<Character, ItemStack> ingredients = new HashMap<>();
+        for (int i = 0; i < ingredientCount; i++) {
+            ingredients.put(in.readChar(), (ItemStack) in.readObject());
+        }
+
+        int matchCount = in.readInt();
+        HashMap<Character, IngredientMatch> matches = new HashMap<>();
+        for (int i = 0; i < matchCount; i++) {
+            char identifier = in.readChar();
+            MatchMode mode = MatchMode.valueOf(in.readUTF());
+            String tag = in.readBoolean() ? in.readUTF() : null;
+            List<String> keys = new ArrayList<>();
+            for (int j = in.readInt(); j > 0; j--) {
+                keys.add(in.readUTF());
+            }
+
+            IngredientMatch match = IngredientMatch.of(mode, tag, keys);
+            // Тега больше нет, о рецепте сообщит загрузчик YAML
+            if (match == null) throw new IOException("Invalid match mode for " + name);
+            matches.put(identifier, match);
+        }
+        return CustomRecipe.grid(type, name, output, ingredients, matches, shape);
+    }
+
+    @Override
+    public void writeCache(ObjectOutputStream out, CustomRecipe recipe) throws IOException {
+        String[] shape = recipe.getShape();
+        out.writeInt(shape.length);
+        for (String row : shape) {
+            out.writeUTF(row);
+        }
+
+        out.writeInt(recipe.getIngredients().size());
+        for (Map.Entry<Character, ItemStack> entry : recipe.getIngredients().entrySet()) {
+            out.writeChar(entry.getKey());
+            out.writeObject(entry.getValue());
+        }
+
+        out.writeInt(recipe.getMatches().size());
+        for (Map.Entry<Character, IngredientMatch> entry : recipe.getMatches().entrySet()) {
+            IngredientMatch match = entry.getValue();
+            out.writeChar(entry.getKey());
+            out.writeUTF(match.getMode().name());
+            out.writeBoolean(match.getTag() != null);
+            if (match.getTag() != null) out.writeUTF(match.getTag());
+            out.writeInt(match.getKeys().size());
+            for (String key : match.getKeys()) {
+                out.writeUTF(key);
+            }
+        }
+    }
+
+    @Override
+    public Recipe toServerRecipe(CustomRecipe recipe, NamespacedKey key, boolean exact) {
+        if (recipe.getType() == RecipeType.SHAPELESS) {
+            ShapelessRecipe shapeless = new ShapelessRecipe(key, recipe.getOutput());
+            for (char identifier : recipe.getIdentifiers()) {
+                shapeless.addIngredient(recipe.getMatch(identifier).toChoice(recipe.getIngredients().get(identifier), exact));
+            }
+            return shapeless;
+        }
+
+        ShapedRecipe shaped = new ShapedRecipe(key, recipe.getOutput());
+        shaped.shape(recipe.getShape());
+        recipe.getIngredients().forEach((identifier, ingredient) ->
+                shaped.setIngredient(identifier, recipe.getMatch(identifier).toChoice(ingredient, exact))
+        );
+        return shaped;
+    }
+
+    @Override
+    public List<ItemStack> getInputs(CustomRecipe recipe) {
+        return new ArrayList<>(recipe.getIngredients().values());
+    }
+
+    @Override
+    public MenuLayout getManageLayout() {
+        return LayoutManager.getInstance().getManageCrafting();
+    }
+
+    @Override
+    public MenuLayout getViewLayout() {
+        return LayoutManager.getInstance().getViewCrafting();
+    }
+
+    @Override
+    public void fill(Inventory inventory, CustomRecipe recipe) {
+        String[] shape = recipe.getShape();
+        for (int row = 0; row < shape.length && row < ShapeExtractor.SIZE; row++) {
+            for (int column = 0; column < shape[row].length() && column < ShapeExtractor.SIZE; column++) {
+                ItemStack ingredient = recipe.getIngredients().get(shape[row].charAt(column));
+                if (ingredient != null) {
+                    inventory.setItem(LayoutManager.GRID_SLOTS[row * ShapeExtractor.SIZE + column], ingredient.clone());
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isComplete(Inventory inventory) {
+        for (int slot : LayoutManager.GRID_SLOTS) {
+            if (!isEmpty(inventory.getItem(slot))) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public CustomRecipe fromMenu(String name, RecipeType type, ItemStack output, Inventory inventory, CustomRecipe existing, int experience, int cookingTime) {
+        ShapeExtractor<Material> shapeExtractor = new ShapeExtractor<>();
+        HashMap<Character, ItemStack> ingredients = new HashMap<>();
+        Material[] grid = new Material[ShapeExtractor.SIZE * ShapeExtractor.SIZE];
+
+        for (int i = 0; i < LayoutManager.GRID_SLOTS.length; i++) {
+            ItemStack item = inventory.getItem(LayoutManager.GRID_SLOTS[i]);
+            if (isEmpty(item)) continue;
+
+            grid[i] = item.getType();
+            ingredients.put(shapeExtractor.getLetter(item.getType()), item);
+        }
+
+        Map<Character, IngredientMatch> matches = existing == null ? Collections.emptyMap() : existing.matchesFor(ingredients);
+        return CustomRecipe.grid(type, name, output, ingredients, matches, shapeExtractor.extract(grid));
+    }
+
+    private static boolean isEmpty(ItemStack item) {
+        return item == null || item.getType() == Material.AIR;
+    }
+
+    // "A: MATERIAL" или секция с режимом и его тегом или ключами NBT
+    private static IngredientMatch readMatch(ConfigurationSection section, String key) {
+        ConfigurationSection matchSection = section.getConfigurationSection(key);
+        String modeName = matchSection == null ? section.getString(key) : matchSection.getString("mode");
+
+        MatchMode mode = MatchMode.fromString(modeName);
+        if (mode == null) {
+            return null;
+        }
+        if (matchSection == null) {
+            return IngredientMatch.of(mode, null, null);
+        }
+        return IngredientMatch.of(mode, matchSection.getString("tag"), matchSection.getStringList("keys"));
+    }
+
+    private static void writeMatch(ConfigurationSection section, String path, IngredientMatch match) {
+        if (match.getTag() == null && match.getKeys().isEmpty()) {
+            section.set(path, match.getMode().name());
+            return;
+        }
+
+        section.set(path + ".mode", match.getMode().name());
+        if (match.getTag() != null) section.set(path + ".tag", match.getTag());
+        if (!match.getKeys().isEmpty()) section.set(path + ".keys", match.getKeys());
+    }
+}
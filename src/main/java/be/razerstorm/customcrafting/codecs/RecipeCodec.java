@@ -0,0 +1,50 @@
+package be.razerstorm.customcrafting.codecs;
+
+import be.razerstorm.customcrafting.enums.RecipeType;
+import be.razerstorm.customcrafting.inventories.MenuLayout;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+// Всё, что зависит от типа рецепта: хранение, серверный рецепт и меню. Тип и результат обрабатывает вызывающий
+public interface RecipeCodec {
+
+    // Читает часть секции, зависящую от типа, вне главного потока, null, если чего-то не хватает
+    CustomRecipe read(String name, RecipeType type, ItemStack output, ConfigurationSection section);
+
+    void write(ConfigurationSection section, CustomRecipe recipe);
+
+    CustomRecipe readCache(String name, RecipeType type, ItemStack output, ObjectInputStream in) throws IOException, ClassNotFoundException;
+
+    void writeCache(ObjectOutputStream out, CustomRecipe recipe) throws IOException;
+
+    // exact: проверяет ли сервер точные ингредиенты, см. IngredientMatch#toChoice
+    Recipe toServerRecipe(CustomRecipe recipe, NamespacedKey key, boolean exact);
+
+    // Все предметы-ингредиенты рецепта, для индекса предметов
+    List<ItemStack> getInputs(CustomRecipe recipe);
+
+    MenuLayout getManageLayout();
+
+    MenuLayout getViewLayout();
+
+    // Выкладывает ингредиенты в меню, слот результата заполняет само меню
+    void fill(Inventory inventory, CustomRecipe recipe);
+
+    default void decorateView(Inventory inventory, CustomRecipe recipe) {
+    }
+
+    // Хватает ли ингредиентов в меню для сохранения
+    boolean isComplete(Inventory inventory);
+
+    // Собирает рецепт из меню, existing - редактируемый рецепт или null, опыт и время готовки только для печей
+    CustomRecipe fromMenu(String name, RecipeType type, ItemStack output, Inventory inventory, CustomRecipe existing, int experience, int cookingTime);
+}
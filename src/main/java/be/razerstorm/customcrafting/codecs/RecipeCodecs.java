@@ -0,0 +1,57 @@
+package be.razerstorm.customcrafting.codecs;
+
+import be.razerstorm.customcrafting.enums.RecipeType;
+import com.cryptomorin.xseries.XMaterial;
+import org.bukkit.inventory.BlastingRecipe;
+import org.bukkit.inventory.CampfireRecipe;
+import org.bukkit.inventory.FurnaceRecipe;
+import org.bukkit.inventory.SmokingRecipe;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Кодек каждого типа рецепта, чтобы загрузка, сохранение, регистрация и меню не перебирали типы
+public final class RecipeCodecs {
+
+    private static final Map<RecipeType, RecipeCodec> CODECS = new EnumMap<>(RecipeType.class);
+
+    static {
+        RecipeCodec grid = new GridRecipeCodec();
+        register(RecipeType.CRAFTING, grid);
+        register(RecipeType.SHAPELESS, grid);
+        register(RecipeType.FURNACE, new CookingRecipeCodec(FurnaceRecipe::new, XMaterial.FURNACE));
+        // Появились в 1.14, на старых серверах эти типы считаются недопустимыми
+        if (classExists("org.bukkit.inventory.StonecuttingRecipe")) {
+            register(RecipeType.BLASTING, new CookingRecipeCodec(BlastingRecipe::new, XMaterial.BLAST_FURNACE));
+            register(RecipeType.SMOKING, new CookingRecipeCodec(SmokingRecipe::new, XMaterial.SMOKER));
+            register(RecipeType.CAMPFIRE, new CookingRecipeCodec(CampfireRecipe::new, XMaterial.CAMPFIRE));
+            register(RecipeType.STONECUTTING, new StonecuttingRecipeCodec());
+        }
+    }
+
+    private RecipeCodecs() {
+    }
+
+    // Только до загрузки рецептов
+    public static void register(RecipeType type, RecipeCodec codec) {
+        CODECS.put(type, codec);
+    }
+
+    // null, если сервер не поддерживает тип
+    public static RecipeCodec get(RecipeType type) {
+        return CODECS.get(type);
+    }
+
+    public static boolean isSupported(RecipeType type) {
+        return CODECS.containsKey(type);
+    }
+
+    private static boolean classExists(String name) {
+        try {
+            Class.forName(name);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package be.razerstorm.customcrafting.codecs;
+
+import be.razerstorm.customcrafting.enums.RecipeType;
+import be.razerstorm.customcrafting.inventories.MenuLayout;
+import be.razerstorm.customcrafting.managers.LayoutManager;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.objects.IngredientMatch;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.inventory.StonecuttingRecipe;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.List;
+
+// Камнерез: один ингредиент, один результат
+public class StonecuttingRecipeCodec implements RecipeCodec {
+
+    @Override
+    public CustomRecipe read(String name, RecipeType type, ItemStack output, ConfigurationSection section) {
+        if (section.get("ingredient") == null) {
+            return null;
+        }
+
+        return CustomRecipe.stonecutting(name, output, (ItemStack) section.get("ingredient"));
+    }
+
+    @Override
+    public void write(ConfigurationSection section, CustomRecipe recipe) {
+        section.set("ingredient", recipe.getIngredient());
+    }
+
+    @Override
+    public CustomRecipe readCache(String name, RecipeType type, ItemStack output, ObjectInputStream in) throws IOException, ClassNotFoundException {
+        return CustomRecipe.stonecutting(name, output, (ItemStack) in.readObject());
+    }
+
+    @Override
+    public void writeCache(ObjectOutputStream out, CustomRecipe recipe) throws IOException {
+        out.writeObject(recipe.getIngredient());
+    }
+
+    @Override
+    public Recipe toServerRecipe(CustomRecipe recipe, NamespacedKey key, boolean exact) {
+        return new StonecuttingRecipe(key, recipe.getOutput(), IngredientMatch.EXACT.toChoice(recipe.getIngredient(), true));
+    }
+
+    @Override
+    public List<ItemStack> getInputs(CustomRecipe recipe) {
+        return Collections.singletonList(recipe.getIngredient());
+    }
+
+    @Override
+    public MenuLayout getManageLayout() {
+        return LayoutManager.getInstance().getManageStonecutting();
+    }
+
+    @Override
+    public MenuLayout getViewLayout() {
+        return LayoutManager.getInstance().getViewStonecutting();
+    }
+
+    @Override
+    public void fill(Inventory inventory, CustomRecipe recipe) {
+        inventory.setItem(LayoutManager.FURNACE_INPUT_SLOT, recipe.getIngredient().clone());
+    }
+
+    @Override
+    public boolean isComplete(Inventory inventory) {
+        ItemStack ingredient = inventory.getItem(LayoutManager.FURNACE_INPUT_SLOT);
+        return ingredient != null && ingredient.getType() != Material.AIR;
+    }
+
+    @Override
+    public CustomRecipe fromMenu(String name, RecipeType type, ItemStack output, Inventory inventory, CustomRecipe existing, int experience, int cookingTime) {
+        return CustomRecipe.stonecutting(name, output, inventory.getItem(LayoutManager.FURNACE_INPUT_SLOT));
+    }
+}
@@ -1,17 +1,32 @@
 package be.razerstorm.customcrafting.commands;
 
 import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.codecs.RecipeCodecs;
 import be.razerstorm.customcrafting.enums.RecipeType;
 import be.razerstorm.customcrafting.inventories.ManageRecipeMenu;
+import be.razerstorm.customcrafting.inventories.RecipeBrowserMenu;
 import be.razerstorm.customcrafting.inventories.ViewRecipeMenu;
+import be.razerstorm.customcrafting.listeners.AsyncTabCompleteListener;
 import be.razerstorm.customcrafting.managers.MessageManager;
+import be.razerstorm.customcrafting.managers.PermissionManager;
 import be.razerstorm.customcrafting.managers.RecipeManager;
+import be.razerstorm.customcrafting.objects.MessageTemplate;
+import be.razerstorm.customcrafting.objects.RecipeConflict;
+import be.razerstorm.customcrafting.objects.RecipeNameIndex;
+import be.razerstorm.customcrafting.objects.RecipeRegistry;
 import be.razerstorm.customcrafting.utils.Utils;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -21,6 +36,14 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 public class CustomCraftingCommand implements CommandExecutor, TabCompleter {
+
+    private static final int MAX_COMPLETIONS = 100;
+    private static final int LIST_PAGE_SIZE = 10;
+    private static final int FIND_LIMIT = 20;
+    private static final List<String> SUBCOMMANDS = Arrays.asList("create", "edit", "delete", "list", "recipes", "reload", "find", "conflicts");
+    private static final List<String> FIND_MODES = Arrays.asList("output", "uses");
+    private static final List<String> RECIPE_TYPES = Arrays.stream(RecipeType.values()).filter(RecipeCodecs::isSupported).map(Enum::name).collect(Collectors.toList());
+
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!sender.hasPermission("customcrafting.command")) {
@@ -41,11 +64,15 @@ public class CustomCraftingCommand implements CommandExecutor, TabCompleter {
             case "delete":
                 return handleDelete(sender, args);
             case "list":
-                return handleList(sender);
+                return handleList(sender, args);
             case "recipes":
                 return handleRecipes(sender, args);
             case "reload":
                 return handleReload(sender);
+            case "find":
+                return handleFind(sender, args);
+            case "conflicts":
+                return handleConflicts(sender);
             default:
                 sendHelp(sender);
                 return true;
@@ -74,11 +101,16 @@ public class CustomCraftingCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        if (RecipeManager.getInstance().isReloading()) {
+            sender.sendMessage(msg.getMessage("reload-in-progress"));
+            return true;
+        }
+
         Player player = (Player) sender;
         String typeStr = args[1].toUpperCase();
         String recipeName = args[2];
 
-        if (!RecipeType.typeExists(typeStr)) {
+        if (!RecipeType.typeExists(typeStr) || !RecipeCodecs.isSupported(RecipeType.valueOf(typeStr))) {
             player.sendMessage(msg.getMessage("commands.create.invalid-type"));
             return true;
         }
@@ -89,28 +121,25 @@ public class CustomCraftingCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        switch (type) {
-            case CRAFTING:
-                new ManageRecipeMenu(player, type, recipeName, false).openMenu();
-                break;
-            case FURNACE:
-                String[] furnaceArgs = Arrays.copyOfRange(args, 3, args.length);
-                if (furnaceArgs.length == 2) {
-                    if (Utils.isInteger(furnaceArgs[0]) && Utils.isInteger(furnaceArgs[1])) {
-                        new ManageRecipeMenu(player, type, recipeName, false, Integer.parseInt(furnaceArgs[0]), Integer.parseInt(furnaceArgs[1]) * 20).openMenu();
-                        return true;
-                    }
-                    player.sendMessage(msg.getMessage("commands.create.invalid-args"));
-                } else if (furnaceArgs.length == 1) {
-                    if (Utils.isInteger(furnaceArgs[0])) {
-                        new ManageRecipeMenu(player, type, recipeName, false, Integer.parseInt(furnaceArgs[0]), 5 * 20).openMenu();
-                        return true;
-                    }
-                    player.sendMessage(msg.getMessage("commands.create.invalid-args"));
-                } else {
-                    new ManageRecipeMenu(player, type, recipeName, false, 0, 5 * 20).openMenu();
+        if (!type.isCooking()) {
+            new ManageRecipeMenu(player, type, recipeName, false).openMenu();
+        } else {
+            String[] furnaceArgs = Arrays.copyOfRange(args, 3, args.length);
+            if (furnaceArgs.length == 2) {
+                if (Utils.isInteger(furnaceArgs[0]) && Utils.isInteger(furnaceArgs[1])) {
+                    new ManageRecipeMenu(player, type, recipeName, false, Integer.parseInt(furnaceArgs[0]), Integer.parseInt(furnaceArgs[1]) * 20).openMenu();
+                    return true;
                 }
-                break;
+                player.sendMessage(msg.getMessage("commands.create.invalid-args"));
+            } else if (furnaceArgs.length == 1) {
+                if (Utils.isInteger(furnaceArgs[0])) {
+                    new ManageRecipeMenu(player, type, recipeName, false, Integer.parseInt(furnaceArgs[0]), 5 * 20).openMenu();
+                    return true;
+                }
+                player.sendMessage(msg.getMessage("commands.create.invalid-args"));
+            } else {
+                new ManageRecipeMenu(player, type, recipeName, false, 0, 5 * 20).openMenu();
+            }
         }
         return true;
     }
@@ -133,6 +162,11 @@ public class CustomCraftingCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        if (RecipeManager.getInstance().isReloading()) {
+            sender.sendMessage(msg.getMessage("reload-in-progress"));
+            return true;
+        }
+
         Player player = (Player) sender;
         String recipeName = args[1];
         if (!RecipeManager.getInstance().recipeExists(recipeName)) {
@@ -142,13 +176,10 @@ public class CustomCraftingCommand implements CommandExecutor, TabCompleter {
 
         RecipeType type = RecipeManager.getInstance().getType(recipeName);
 
-        switch (type) {
-            case CRAFTING:
-                new ManageRecipeMenu(player, type, recipeName, true).openMenu();
-                break;
-            case FURNACE:
-                new ManageRecipeMenu(player, type, recipeName, true, RecipeManager.getInstance().getExperience(recipeName), RecipeManager.getInstance().getCookingTime(recipeName)).openMenu();
-                break;
+        if (!type.isCooking()) {
+            new ManageRecipeMenu(player, type, recipeName, true).openMenu();
+        } else {
+            new ManageRecipeMenu(player, type, recipeName, true, RecipeManager.getInstance().getExperience(recipeName), RecipeManager.getInstance().getCookingTime(recipeName)).openMenu();
         }
         return true;
     }
@@ -166,9 +197,14 @@ public class CustomCraftingCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        if (RecipeManager.getInstance().isReloading()) {
+            sender.sendMessage(msg.getMessage("reload-in-progress"));
+            return true;
+        }
+
         String recipeName = args[1];
 
-        if (RecipeManager.getInstance().getRecipes().contains(recipeName)) {
+        if (RecipeManager.getInstance().recipeExists(recipeName)) {
             RecipeManager.getInstance().deleteRecipe(recipeName);
             Map<String, String> placeholders = new HashMap<>();
             placeholders.put("name", recipeName);
@@ -179,7 +215,7 @@ public class CustomCraftingCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
-    private boolean handleList(CommandSender sender) {
+    private boolean handleList(CommandSender sender, String[] args) {
         MessageManager msg = MessageManager.getInstance();
         
         if (!sender.hasPermission("customcrafting.command.list")) {
@@ -187,24 +223,88 @@ public class CustomCraftingCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        ArrayList<String> recipes = RecipeManager.getInstance().getRecipes();
+        int page = 0;
+        String filter = null;
+        if (args.length >= 2) {
+            if (Utils.isInteger(args[1])) {
+                page = Integer.parseInt(args[1]);
+                if (args.length >= 3) filter = args[2];
+            } else {
+                filter = args[1];
+            }
+        }
+
+        RecipeNameIndex index = RecipeManager.getInstance().getNameIndex();
+        List<String> recipes = filter == null ? index.getNames() : index.filter(filter);
+        if (PermissionManager.getInstance().isEnabled() && sender instanceof Player) {
+            recipes = recipes.stream().filter(PermissionManager.getInstance().visibleTo(sender)).collect(Collectors.toList());
+        }
         if (recipes.isEmpty()) {
             sender.sendMessage(msg.getMessage("commands.list.empty"));
             return true;
         }
-        
+
+        // Консоль получает всё, по частям за несколько тиков, чтобы длинный список не подвесил сервер
+        if (page == 0 && !(sender instanceof Player)) {
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("count", String.valueOf(recipes.size()));
+            placeholders.put("page", "1");
+            placeholders.put("pages", "1");
+            sender.sendMessage(msg.getMessage("commands.list.header", placeholders));
+            new ListStreamer(sender, recipes, msg.getTemplate("commands.list.item")).runTaskTimer(CustomCrafting.getInstance(), 0L, 1L);
+            return true;
+        }
+
+        int pages = (recipes.size() + LIST_PAGE_SIZE - 1) / LIST_PAGE_SIZE;
+        page = Math.max(1, Math.min(page, pages));
+
         Map<String, String> placeholders = new HashMap<>();
         placeholders.put("count", String.valueOf(recipes.size()));
+        placeholders.put("page", String.valueOf(page));
+        placeholders.put("pages", String.valueOf(pages));
         sender.sendMessage(msg.getMessage("commands.list.header", placeholders));
-        
-        recipes.forEach(recipe -> {
-            Map<String, String> itemPlaceholders = new HashMap<>();
-            itemPlaceholders.put("name", recipe);
-            sender.sendMessage(msg.getMessage("commands.list.item", itemPlaceholders));
-        });
+
+        MessageTemplate item = msg.getTemplate("commands.list.item");
+        Map<String, String> itemPlaceholders = new HashMap<>();
+        int end = Math.min(page * LIST_PAGE_SIZE, recipes.size());
+        for (int i = (page - 1) * LIST_PAGE_SIZE; i < end; i++) {
+            itemPlaceholders.put("name", recipes.get(i));
+            sender.sendMessage(item.render(itemPlaceholders));
+        }
+
+        if (pages > 1) sendPageNavigation(sender, page, pages, filter);
         return true;
     }
 
+    private void sendPageNavigation(CommandSender sender, int page, int pages, String filter) {
+        MessageManager msg = MessageManager.getInstance();
+        String command = "/cc list %d" + (filter == null ? "" : " " + filter);
+
+        if (!(sender instanceof Player)) {
+            if (page == pages) return;
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("command", String.format(command, page + 1));
+            sender.sendMessage(msg.getMessage("commands.list.console-navigation", placeholders));
+            return;
+        }
+
+        TextComponent navigation = new TextComponent();
+        if (page > 1) navigation.addExtra(pageLink(msg.getMessage("commands.list.previous"), String.format(command, page - 1), page - 1));
+        if (page > 1 && page < pages) navigation.addExtra(" ");
+        if (page < pages) navigation.addExtra(pageLink(msg.getMessage("commands.list.next"), String.format(command, page + 1), page + 1));
+        sender.spigot().sendMessage(navigation);
+    }
+
+    private TextComponent pageLink(String text, String command, int page) {
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("page", String.valueOf(page));
+
+        TextComponent link = new TextComponent(TextComponent.fromLegacyText(text));
+        link.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, command));
+        link.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, TextComponent.fromLegacyText(MessageManager.getInstance().getMessage("commands.list.hover", placeholders))));
+        return link;
+    }
+
     private boolean handleRecipes(CommandSender sender, String[] args) {
         MessageManager msg = MessageManager.getInstance();
         
@@ -218,12 +318,12 @@ public class CustomCraftingCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        Player player = (Player) sender;
         if (args.length < 2) {
-            sender.sendMessage(msg.getMessage("commands.recipes.usage"));
+            new RecipeBrowserMenu(player).openMenu();
             return true;
         }
 
-        Player player = (Player) sender;
         String recipeName = args[1];
 
         if (!RecipeManager.getInstance().recipeExists(recipeName)) {
@@ -244,45 +344,193 @@ public class CustomCraftingCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        // Перезагружаем конфигурацию
-        CustomCrafting.getInstance().reloadConfig();
-        
+        if (RecipeManager.getInstance().isReloading()) {
+            sender.sendMessage(msg.getMessage("reload-in-progress"));
+            return true;
+        }
+
         // Перезагружаем сообщения
         MessageManager.getInstance().reloadMessages();
-        
-        // Перезагружаем рецепты
-        RecipeManager.getInstance().loadRecipes();
 
-        sender.sendMessage(msg.getMessage("reload-success"));
+        // Перечитываем конфиг и применяем только изменившиеся рецепты
+        RecipeManager.getInstance().loadRecipes().thenAccept(diff -> {
+            if (diff == null) return;
+            sender.sendMessage(msg.getMessage("reload-success"));
+        });
+        return true;
+    }
+
+    private boolean handleFind(CommandSender sender, String[] args) {
+        MessageManager msg = MessageManager.getInstance();
+
+        if (!sender.hasPermission("customcrafting.command.find")) {
+            sender.sendMessage(msg.getMessage("no-permission"));
+            return true;
+        }
+
+        if (args.length < 2 || !FIND_MODES.contains(args[1].toLowerCase())) {
+            sender.sendMessage(msg.getMessage("commands.find.usage"));
+            return true;
+        }
+
+        boolean output = args[1].equalsIgnoreCase("output");
+        RecipeRegistry registry = RecipeManager.getInstance().getRegistry();
+        Map<String, String> placeholders = new HashMap<>();
+        List<String> found;
+
+        if (args.length >= 3) {
+            Material material = Material.matchMaterial(args[2]);
+            placeholders.put("item", args[2]);
+            if (material == null) {
+                sender.sendMessage(msg.getMessage("commands.find.invalid-item", placeholders));
+                return true;
+            }
+            found = output ? registry.findByOutput(material) : registry.findByInput(material);
+        } else {
+            if (!(sender instanceof Player)) {
+                sender.sendMessage(msg.getMessage("commands.find.usage"));
+                return true;
+            }
+
+            ItemStack item = ((Player) sender).getInventory().getItemInMainHand();
+            if (item == null || item.getType() == Material.AIR) {
+                sender.sendMessage(msg.getMessage("commands.find.no-item"));
+                return true;
+            }
+
+            placeholders.put("item", item.getType().name());
+            // Сначала точное совпадение предмета, затем любой предмет того же типа
+            found = output ? registry.findByOutput(item) : registry.findByInput(item);
+            if (found.isEmpty()) {
+                found = output ? registry.findByOutput(item.getType()) : registry.findByInput(item.getType());
+            }
+        }
+
+        if (found.isEmpty()) {
+            sender.sendMessage(msg.getMessage("commands.find.none", placeholders));
+            return true;
+        }
+
+        placeholders.put("count", String.valueOf(found.size()));
+        sender.sendMessage(msg.getMessage(output ? "commands.find.output-header" : "commands.find.uses-header", placeholders));
+
+        MessageTemplate item = msg.getTemplate("commands.find.item");
+        Map<String, String> itemPlaceholders = new HashMap<>();
+        for (int i = 0; i < Math.min(found.size(), FIND_LIMIT); i++) {
+            itemPlaceholders.put("name", found.get(i));
+            sender.sendMessage(item.render(itemPlaceholders));
+        }
+
+        if (found.size() > FIND_LIMIT) {
+            itemPlaceholders.put("count", String.valueOf(found.size() - FIND_LIMIT));
+            sender.sendMessage(msg.getMessage("commands.find.more", itemPlaceholders));
+        }
+        return true;
+    }
+
+    private boolean handleConflicts(CommandSender sender) {
+        MessageManager msg = MessageManager.getInstance();
+
+        if (!sender.hasPermission("customcrafting.command.conflicts")) {
+            sender.sendMessage(msg.getMessage("no-permission"));
+            return true;
+        }
+
+        sender.sendMessage(msg.getMessage("commands.conflicts.checking"));
+        RecipeManager.getInstance().findConflicts().whenComplete((conflicts, throwable) -> Bukkit.getScheduler().runTask(CustomCrafting.getInstance(), () -> {
+            // findConflicts уже записал ошибку в лог
+            if (throwable != null) {
+                sender.sendMessage(msg.getMessage("commands.conflicts.failed"));
+                return;
+            }
+            if (conflicts.isEmpty()) {
+                sender.sendMessage(msg.getMessage("commands.conflicts.none"));
+                return;
+            }
+
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("count", String.valueOf(conflicts.size()));
+            sender.sendMessage(msg.getMessage("commands.conflicts.header", placeholders));
+
+            MessageTemplate item = msg.getTemplate("commands.conflicts.item");
+            for (RecipeConflict conflict : conflicts) {
+                placeholders.put("recipe", conflict.getRecipe());
+                placeholders.put("other", conflict.getOther());
+                sender.sendMessage(item.render(placeholders));
+            }
+        }));
         return true;
     }
 
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        return complete(sender, args);
+    }
+
+    // Читает только неизменяемое состояние, Paper вызывает это вне главного потока через AsyncTabCompleteListener
+    public List<String> complete(CommandSender sender, String[] args) {
         if (!sender.hasPermission("customcrafting.command")) {
             return new ArrayList<>();
         }
 
         if (args.length == 1) {
-            return Arrays.asList("create", "edit", "delete", "list", "recipes", "reload").stream()
-                    .filter(s -> s.toLowerCase().startsWith(args[0].toLowerCase()))
-                    .collect(Collectors.toList());
+            return Utils.filterByPrefix(SUBCOMMANDS, args[0]);
         }
 
         if (args.length == 2) {
             if (args[0].equalsIgnoreCase("create")) {
-                return Arrays.asList("CRAFTING", "FURNACE").stream()
-                        .filter(s -> s.toLowerCase().startsWith(args[1].toLowerCase()))
-                        .collect(Collectors.toList());
+                return Utils.filterByPrefix(RECIPE_TYPES, args[1]);
             }
 
             if (args[0].equalsIgnoreCase("edit") || args[0].equalsIgnoreCase("delete") || args[0].equalsIgnoreCase("recipes")) {
-                return RecipeManager.getInstance().getRecipes().stream()
-                        .filter(s -> s.toLowerCase().startsWith(args[1].toLowerCase()))
-                        .collect(Collectors.toList());
+                return RecipeManager.getInstance().completeRecipeNames(args[1], MAX_COMPLETIONS, PermissionManager.getInstance().visibleTo(sender));
             }
+
+            if (args[0].equalsIgnoreCase("find")) {
+                return Utils.filterByPrefix(FIND_MODES, args[1]);
+            }
+        }
+
+        if (args.length == 3 && args[0].equalsIgnoreCase("find")) {
+            List<String> materials = Utils.filterByPrefix(MaterialNames.ITEMS, args[2]);
+            return materials.size() > MAX_COMPLETIONS ? new ArrayList<>(materials.subList(0, MAX_COMPLETIONS)) : materials;
         }
 
         return new ArrayList<>();
     }
-}
\ No newline at end of file
+
+    // Отправляет список в консоль по части за тик
+    private static class ListStreamer extends BukkitRunnable {
+        private static final int LINES_PER_TICK = 200;
+
+        private final CommandSender sender;
+        private final List<String> recipes;
+        private final MessageTemplate item;
+        private final Map<String, String> placeholders = new HashMap<>();
+        private int next;
+
+        private ListStreamer(CommandSender sender, List<String> recipes, MessageTemplate item) {
+            this.sender = sender;
+            this.recipes = recipes;
+            this.item = item;
+        }
+
+        @Override
+        public void run() {
+            int end = Math.min(next + LINES_PER_TICK, recipes.size());
+            for (; next < end; next++) {
+                placeholders.put("name", recipes.get(next));
+                sender.sendMessage(item.render(placeholders));
+            }
+            if (next >= recipes.size()) cancel();
+        }
+    }
+
+    // Загружается при первом использовании, список материалов не меняется во время работы сервера
+    private static class MaterialNames {
+        private static final List<String> ITEMS = Arrays.stream(Material.values())
+                .filter(Material::isItem)
+                .map(material -> material.name().toLowerCase())
+                .collect(Collectors.toList());
+    }
+}
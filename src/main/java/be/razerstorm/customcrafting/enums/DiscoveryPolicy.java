@@ -0,0 +1,17 @@
+package be.razerstorm.customcrafting.enums;
+
+public enum DiscoveryPolicy {
+    NONE,
+    ALL,
+    PERMISSION,
+    PICKUP;
+
+    public static DiscoveryPolicy fromString(String policy) {
+        for (DiscoveryPolicy discoveryPolicy : DiscoveryPolicy.values()) {
+            if (discoveryPolicy.name().equalsIgnoreCase(policy)) {
+                return discoveryPolicy;
+            }
+        }
+        return NONE;
+    }
+}
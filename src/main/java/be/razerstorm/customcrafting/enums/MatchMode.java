@@ -0,0 +1,23 @@
+package be.razerstorm.customcrafting.enums;
+
+public enum MatchMode {
+    EXACT,
+    MATERIAL,
+    TAG,
+    CUSTOM_MODEL_DATA,
+    NBT_KEYS;
+
+    public static MatchMode fromString(String mode) {
+        for (MatchMode matchMode : MatchMode.values()) {
+            if (matchMode.name().equalsIgnoreCase(mode)) {
+                return matchMode;
+            }
+        }
+        return null;
+    }
+
+    // Проверяет ли режим сам серверный RecipeChoice, иначе совпадение подтверждает плагин
+    public boolean isServerChecked() {
+        return this == EXACT || this == MATERIAL || this == TAG;
+    }
+}
@@ -2,7 +2,20 @@ package be.razerstorm.customcrafting.enums;
 
 public enum RecipeType {
     CRAFTING,
-    FURNACE;
+    SHAPELESS,
+    FURNACE,
+    BLASTING,
+    SMOKING,
+    CAMPFIRE,
+    STONECUTTING;
+
+    public boolean isCrafting() {
+        return this == CRAFTING || this == SHAPELESS;
+    }
+
+    public boolean isCooking() {
+        return this == FURNACE || this == BLASTING || this == SMOKING || this == CAMPFIRE;
+    }
 
     public static boolean typeExists(String type) {
         for(RecipeType recipeType : RecipeType.values()) {
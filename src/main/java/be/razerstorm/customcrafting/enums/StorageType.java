@@ -0,0 +1,15 @@
+package be.razerstorm.customcrafting.enums;
+
+public enum StorageType {
+    CONFIG,
+    FILES;
+
+    public static StorageType fromString(String type) {
+        for (StorageType storageType : StorageType.values()) {
+            if (storageType.name().equalsIgnoreCase(type)) {
+                return storageType;
+            }
+        }
+        return CONFIG;
+    }
+}
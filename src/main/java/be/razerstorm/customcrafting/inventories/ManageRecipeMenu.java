@@ -1,26 +1,23 @@
 package be.razerstorm.customcrafting.inventories;
 
 import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.codecs.RecipeCodec;
+import be.razerstorm.customcrafting.codecs.RecipeCodecs;
 import be.razerstorm.customcrafting.enums.RecipeType;
+import be.razerstorm.customcrafting.managers.LayoutManager;
+import be.razerstorm.customcrafting.managers.MessageManager;
 import be.razerstorm.customcrafting.managers.RecipeManager;
-import be.razerstorm.customcrafting.objects.RecipeInfo;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
 import be.razerstorm.customcrafting.utils.Utils;
 import be.razerstorm.customcrafting.utils.GUIHolder;
-import be.razerstorm.customcrafting.utils.ItemBuilder;
-import com.cryptomorin.xseries.XItemStack;
-import com.cryptomorin.xseries.XMaterial;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.inventory.ItemStack;
-
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.function.Predicate;
+import org.bukkit.scheduler.BukkitTask;
 
 public class ManageRecipeMenu extends GUIHolder {
 
@@ -31,35 +28,18 @@ public class ManageRecipeMenu extends GUIHolder {
     private final Player player;
     private final String recipeName;
     private final boolean editing;
-    private final List<Integer> craftingExcludedSlots = Arrays.asList(10, 11, 12, 19, 20, 21, 23, 28, 29, 30);
-    private final List<Integer> furnaceExcludedSlots = Arrays.asList(10, 23, 28);
-    private final HashMap<Integer, Integer[]> rows = new HashMap<Integer, Integer[]>() {{
-        put(1, new Integer[]{10, 11, 12});
-        put(2, new Integer[]{19, 20, 21});
-        put(3, new Integer[]{28, 29, 30});
-    }};
-
-    private final ItemStack invalid = new ItemBuilder(XMaterial.RED_WOOL.parseMaterial())
-            .setColoredName("&4Submit")
-            .addLoreLine(Utils.color("&cThe recipe is invalid!"))
-            .toItemStack();
-
-    private final ItemStack valid = new ItemBuilder(XMaterial.GREEN_WOOL.parseMaterial())
-            .setColoredName("&2Submit")
-            .toItemStack();
-
-    private final ItemStack invalidSlot = new ItemBuilder(XMaterial.RED_STAINED_GLASS_PANE.parseMaterial())
-            .setColoredName("&4Invalid slot")
-            .setLore(Utils.color("&cWe can't change the fuel of the recipe :("))
-            .toItemStack();
-
-    private final HashMap<Material, Character> ingredientsList = new HashMap<>();
+    private final RecipeCodec codec;
+    private final MenuLayout layout;
+    private BukkitTask validationTask;
+    private BukkitTask submitTask;
 
     public ManageRecipeMenu(Player player, RecipeType type, String recipeName, boolean editing) {
         this.type = type;
         this.player = player;
         this.recipeName = recipeName;
         this.editing = editing;
+        this.codec = RecipeCodecs.get(type);
+        this.layout = codec.getManageLayout();
     }
 
     public ManageRecipeMenu(Player player, RecipeType type, String recipeName, boolean editing, int experience, int cookingTime) {
@@ -67,93 +47,29 @@ public class ManageRecipeMenu extends GUIHolder {
         this.player = player;
         this.recipeName = recipeName;
         this.editing = editing;
+        this.codec = RecipeCodecs.get(type);
+        this.layout = codec.getManageLayout();
         this.experience = experience;
         this.cookingTime = cookingTime;
     }
 
     public void openMenu() {
         if (editing) {
-            this.inventory = Bukkit.createInventory(this, 5 * 9, Utils.color("&eEditing recipe: &6" + recipeName));
+            this.inventory = Bukkit.createInventory(this, layout.getSize(), Utils.color("&eEditing recipe: &6" + recipeName));
         } else {
-            this.inventory = Bukkit.createInventory(this, 5 * 9, Utils.color("&eCreating recipe: &6" + recipeName));
-        }
-
-        ItemStack item = new ItemBuilder(XMaterial.BLACK_STAINED_GLASS_PANE.parseMaterial())
-                .setColoredName("&8")
-                .toItemStack();
-
-        Predicate<Integer> fill;
-
-        switch (type) {
-            case CRAFTING: {
-                fill = (i) -> {
-                    if (craftingExcludedSlots.contains(i)) return false;
-                    inventory.setItem(i, item);
-                    return true;
-                };
-                break;
-            }
-            case FURNACE: {
-                fill = (i) -> {
-                    if (i == 28) {
-                        inventory.setItem(i, invalidSlot);
-                        return true;
-                    }
-
-                    if (furnaceExcludedSlots.contains(i)) return false;
-
-                    inventory.setItem(i, item);
-                    return true;
-                };
-                break;
-            }
-            default: {
-                fill = (i) -> {
-                    return false;
-                };
-            }
+            this.inventory = Bukkit.createInventory(this, layout.getSize(), Utils.color("&eCreating recipe: &6" + recipeName));
         }
 
-        XItemStack.addItems(inventory, false, fill, item);
+        layout.apply(inventory);
 
-        switch (type) {
-            case CRAFTING: {
-                if (!editing) break;
-                RecipeInfo recipeInfo = RecipeManager.getInstance().getRecipeInfo(recipeName);
-                ItemStack output = recipeInfo.getOutput();
-                inventory.setItem(23, output);
-                String[] shape = recipeInfo.getShape();
-                HashMap<Character, ItemStack> ingredients = recipeInfo.getIngredients();
-
-                for (int i = 0; i < shape.length; i++) {
-                    String row = shape[i];
-                    for (int j = 0; j < row.length(); j++) {
-                        char c = row.charAt(j);
-                        ItemStack ingredient = ingredients.get(c);
-                        if (ingredient != null) {
-                            inventory.setItem(rows.get(i + 1)[j], ingredient);
-                        }
-                    }
-                }
-                break;
-            }
-            case FURNACE: {
-                if (!editing) break;
-                ItemStack output = RecipeManager.getInstance().getOutput(recipeName);
-                ItemStack ingredient = RecipeManager.getInstance().getIngredient(recipeName);
-
-                inventory.setItem(23, output);
-                inventory.setItem(10, ingredient);
-                break;
-            }
-        }
-
-        if (!editing) {
-            inventory.setItem(25, invalid);
-        } else {
-            inventory.setItem(25, valid);
+        CustomRecipe recipe = editing ? RecipeManager.getInstance().getRecipe(recipeName) : null;
+        if (recipe != null) {
+            inventory.setItem(LayoutManager.OUTPUT_SLOT, recipe.getOutput().clone());
+            codec.fill(inventory, recipe);
         }
 
+        LayoutManager layouts = LayoutManager.getInstance();
+        inventory.setItem(LayoutManager.SUBMIT_SLOT, editing ? layouts.getValidSubmit() : layouts.getInvalidSubmit());
 
         open(player);
     }
@@ -161,140 +77,87 @@ public class ManageRecipeMenu extends GUIHolder {
     @Override
     public void onClick(InventoryClickEvent event) {
         if (event.getView().getTopInventory() == event.getClickedInventory()) {
-            switch (type) {
-                case CRAFTING: {
-                    if (!craftingExcludedSlots.contains(event.getRawSlot())) event.setCancelled(true);
-                    break;
-                }
-                case FURNACE: {
-                    if (event.getRawSlot() == 28) event.setCancelled(true);
-                    if(!furnaceExcludedSlots.contains(event.getRawSlot())) event.setCancelled(true);
-                    break;
-                }
-            }
-        }
-
-        Bukkit.getScheduler().runTaskLater(CustomCrafting.getInstance(), () -> {
-
-            boolean outputPresent = false;
-            boolean inputPresent = false;
-
-            if (event.getInventory().getItem(23) != null && event.getInventory().getItem(23).getType() != Material.AIR) {
-                outputPresent = true;
-            }
-
-            switch (type) {
-                case CRAFTING: {
-                    for (int slot : craftingExcludedSlots) {
-                        if (slot == 23) continue;
-                        if (event.getInventory().getItem(slot) != null && event.getInventory().getItem(slot).getType() != Material.AIR) {
-                            inputPresent = true;
-                            break;
-                        }
-                    }
-                    break;
-                }
+            if (!layout.isOpen(event.getRawSlot())) event.setCancelled(true);
 
-                case FURNACE: {
-                    if (event.getInventory().getItem(10) != null && event.getInventory().getItem(10).getType() != Material.AIR) {
-                        inputPresent = true;
-                    }
-                    break;
-                }
-            }
-
-            if (event.getRawSlot() == 25) {
-                event.setCancelled(true);
-            }
-
-            if (outputPresent && inputPresent) {
-                if (event.getRawSlot() == 25) {
-                    submit();
-                    return;
-                }
-
-                event.getInventory().setItem(25, valid);
-            } else {
-                event.getInventory().setItem(25, invalid);
+            // При клике по кнопке ничего не двигается, поэтому сохраняется текущее содержимое
+            if (event.getRawSlot() == LayoutManager.SUBMIT_SLOT) {
+                if (isValid()) scheduleSubmit();
+                return;
             }
+        }
 
-        }, 8L);
+        scheduleValidation();
     }
 
-    public void submit() {
-        ItemStack output = inventory.getItem(23);
-        switch (type) {
-            case CRAFTING: {
-                RecipeInfo recipeInfo = getRecipeInfo();
-                if (editing) {
-                    RecipeManager.getInstance().editRecipe(recipeName, output, recipeInfo.getIngredients(), recipeInfo.getShape());
-                    player.sendMessage(Utils.color("&aSuccessfully edited recipe &2" + recipeName + "&a!"));
-                    player.closeInventory();
-                } else {
-                    RecipeManager.getInstance().addRecipe(recipeName, output, recipeInfo.getIngredients(), recipeInfo.getShape());
-                    player.sendMessage(Utils.color("&aSuccessfully created recipe &2" + recipeName + "&a!"));
-                }
-                player.closeInventory();
-                return;
-            }
-            case FURNACE: {
-                if (editing) {
-                    RecipeManager.getInstance().editRecipe(recipeName, output, inventory.getItem(10), experience, cookingTime);
-                    player.sendMessage(Utils.color("&aSuccessfully edited recipe &2" + recipeName + "&a!"));
-                    player.closeInventory();
-                } else {
-                    RecipeManager.getInstance().addRecipe(recipeName, output, inventory.getItem(10), experience, cookingTime);
-                    player.sendMessage(Utils.color("&aSuccessfully created recipe &2" + recipeName + "&a!"));
-                }
-                player.closeInventory();
+    @Override
+    public void onDrag(InventoryDragEvent event) {
+        for (int slot : event.getRawSlots()) {
+            if (slot < layout.getSize() && !layout.isOpen(slot)) {
+                event.setCancelled(true);
                 return;
             }
         }
-    }
 
-    public RecipeInfo getRecipeInfo() {
-        String[] shapeArray = new String[3];
-        HashMap<Character, ItemStack> ingredients = new HashMap<>();
-        List<String> shape = new ArrayList<>();
-
-        for (int row : rows.keySet()) {
-            StringBuilder rowString = new StringBuilder();
-            for (int slot : rows.get(row)) {
-                ItemStack item = inventory.getItem(slot);
-                if (item == null || item.getType() == Material.AIR) {
-                    rowString.append(" ");
-                    continue;
-                }
-
-                char ingredientLetter = getOrCreateIngredientLetter(item.getType());
+        scheduleValidation();
+    }
 
-                rowString.append(ingredientLetter);
-                ingredients.put(ingredientLetter, item);
-            }
+    // Повторные клики до следующего тика сохраняют один раз
+    private void scheduleSubmit() {
+        if (submitTask != null) return;
+        submitTask = Bukkit.getScheduler().runTask(CustomCrafting.getInstance(), () -> {
+            submitTask = null;
+            submit();
+        });
+    }
 
-            shape.add(rowString.toString());
-        }
+    // Клики только помечают меню, кнопка обновляется один раз на следующем тике
+    private void scheduleValidation() {
+        if (validationTask != null) return;
+        validationTask = Bukkit.getScheduler().runTask(CustomCrafting.getInstance(), () -> {
+            validationTask = null;
+            LayoutManager layouts = LayoutManager.getInstance();
+            inventory.setItem(LayoutManager.SUBMIT_SLOT, isValid() ? layouts.getValidSubmit() : layouts.getInvalidSubmit());
+        });
+    }
 
-        shapeArray = shape.toArray(shapeArray);
+    private boolean isValid() {
+        return !isEmpty(inventory.getItem(LayoutManager.OUTPUT_SLOT)) && codec.isComplete(inventory);
+    }
 
-        return new RecipeInfo(shapeArray, ingredients);
+    private static boolean isEmpty(ItemStack item) {
+        return item == null || item.getType() == Material.AIR;
     }
 
+    public void submit() {
+        RecipeManager recipeManager = RecipeManager.getInstance();
+        // Меню остаётся открытым, рецепт можно сохранить снова после перезагрузки
+        if (recipeManager.isReloading()) {
+            player.sendMessage(MessageManager.getInstance().getMessage("reload-in-progress"));
+            return;
+        }
+        ItemStack output = inventory.getItem(LayoutManager.OUTPUT_SLOT);
+        CustomRecipe existing = editing ? recipeManager.getRecipe(recipeName) : null;
+        CustomRecipe recipe = codec.fromMenu(recipeName, type, output, inventory, existing, experience, cookingTime);
 
-    private char getOrCreateIngredientLetter(Material ingredient) {
-        if (ingredientsList.containsKey(ingredient)) {
-            return ingredientsList.get(ingredient);
+        if (editing) {
+            recipeManager.editRecipe(recipe);
+            player.sendMessage(Utils.color("&aSuccessfully edited recipe &2" + recipeName + "&a!"));
         } else {
-            char ingredientLetter = 'A';
-            while (ingredientsList.containsValue(ingredientLetter)) {
-                ingredientLetter++;
-            }
-            ingredientsList.put(ingredient, ingredientLetter);
-            return ingredientLetter;
+            recipeManager.addRecipe(recipe);
+            player.sendMessage(Utils.color("&aSuccessfully created recipe &2" + recipeName + "&a!"));
         }
+        player.closeInventory();
     }
 
     @Override
     public void onInventoryClose(InventoryCloseEvent event) {
+        if (validationTask != null) {
+            validationTask.cancel();
+            validationTask = null;
+        }
+        if (submitTask != null) {
+            submitTask.cancel();
+            submitTask = null;
+        }
     }
 }
\ No newline at end of file
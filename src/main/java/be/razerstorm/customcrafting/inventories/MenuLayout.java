@@ -0,0 +1,75 @@
+package be.razerstorm.customcrafting.inventories;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+// Готовое общее содержимое меню, открытые слоты доступны игроку и пусты в шаблоне. Меню до 64 слотов, открытые помещаются в long
+public final class MenuLayout {
+
+    private final ItemStack[] contents;
+    private final long openSlots;
+
+    private MenuLayout(ItemStack[] contents, long openSlots) {
+        this.contents = contents;
+        this.openSlots = openSlots;
+    }
+
+    public static Builder builder(int size, ItemStack filler) {
+        return new Builder(size, filler);
+    }
+
+    public int getSize() {
+        return contents.length;
+    }
+
+    public boolean isOpen(int slot) {
+        return slot >= 0 && slot < contents.length && (openSlots & (1L << slot)) != 0;
+    }
+
+    // Копия массива, сами предметы общие и не должны меняться
+    public ItemStack[] getContents() {
+        return contents.clone();
+    }
+
+    // Bukkit копирует предметы, шаблон не меняется
+    public void apply(Inventory inventory) {
+        inventory.setContents(contents.clone());
+    }
+
+    public static final class Builder {
+        private final ItemStack[] contents;
+        private long openSlots;
+
+        private Builder(int size, ItemStack filler) {
+            if (size > Long.SIZE) throw new IllegalArgumentException("Menu layouts hold at most " + Long.SIZE + " slots");
+            this.contents = new ItemStack[size];
+            for (int i = 0; i < size; i++) {
+                contents[i] = filler;
+            }
+        }
+
+        public Builder open(int... slots) {
+            for (int slot : slots) {
+                contents[slot] = null;
+                openSlots |= 1L << slot;
+            }
+            return this;
+        }
+
+        public Builder clear(int... slots) {
+            for (int slot : slots) {
+                contents[slot] = null;
+            }
+            return this;
+        }
+
+        public Builder set(int slot, ItemStack item) {
+            contents[slot] = item;
+            return this;
+        }
+
+        public MenuLayout build() {
+            return new MenuLayout(contents.clone(), openSlots);
+        }
+    }
+}
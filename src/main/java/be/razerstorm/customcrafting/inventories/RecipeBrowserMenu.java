@@ -0,0 +1,105 @@
+package be.razerstorm.customcrafting.inventories;
+
+import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.managers.LayoutManager;
+import be.razerstorm.customcrafting.managers.MessageManager;
+import be.razerstorm.customcrafting.managers.RecipeManager;
+import be.razerstorm.customcrafting.utils.GUIHolder;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+public class RecipeBrowserMenu extends GUIHolder {
+
+    private final Player player;
+    private int requestedPage;
+    private RecipeBrowserPages.Page page;
+    private boolean closed;
+
+    public RecipeBrowserMenu(Player player) {
+        this.player = player;
+    }
+
+    public void openMenu() {
+        MenuLayout layout = LayoutManager.getInstance().getBrowser();
+        this.inventory = Bukkit.createInventory(this, layout.getSize(), MessageManager.getInstance().getMessage("gui.browser"));
+        layout.apply(inventory);
+
+        showPage(1);
+        open(player);
+    }
+
+    private void showPage(int number) {
+        requestedPage = number;
+        CompletableFuture<RecipeBrowserPages.Page> future = RecipeBrowserPages.getInstance().getPage(number);
+
+        // Страницы обычно берутся из кэша, ждём тик, только если страница ещё строится
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            apply(number, future.join());
+            return;
+        }
+        future.whenComplete((prepared, throwable) -> Bukkit.getScheduler().runTask(CustomCrafting.getInstance(), () -> {
+            if (throwable == null) {
+                apply(number, prepared);
+                return;
+            }
+            CustomCrafting.getInstance().getLogger().log(Level.SEVERE, "Could not build page " + number + " of the recipe browser", throwable);
+            if (!closed && requestedPage == number) player.sendMessage(MessageManager.getInstance().getMessage("commands.recipes.failed"));
+        }));
+    }
+
+    private void apply(int number, RecipeBrowserPages.Page prepared) {
+        if (closed || requestedPage != number) return;
+
+        page = prepared;
+        inventory.setContents(prepared.getContents());
+
+        // Готовим соседние страницы, пока смотрят эту
+        RecipeBrowserPages.getInstance().prefetch(prepared.getNumber() + 1);
+        RecipeBrowserPages.getInstance().prefetch(prepared.getNumber() - 1);
+    }
+
+    @Override
+    public void onClick(InventoryClickEvent event) {
+        if (event.isShiftClick() || event.getView().getTopInventory() == event.getClickedInventory()) {
+            event.setCancelled(true);
+        }
+        if (event.getView().getTopInventory() != event.getClickedInventory() || page == null) return;
+
+        int slot = event.getRawSlot();
+        if (slot == LayoutManager.BROWSER_PREVIOUS_SLOT && page.getNumber() > 1) {
+            showPage(page.getNumber() - 1);
+            return;
+        }
+        if (slot == LayoutManager.BROWSER_NEXT_SLOT && page.getNumber() < page.getPages()) {
+            showPage(page.getNumber() + 1);
+            return;
+        }
+
+        String recipeName = page.getRecipe(slot);
+        if (recipeName == null || !RecipeManager.getInstance().recipeExists(recipeName)) return;
+
+        Bukkit.getScheduler().runTask(CustomCrafting.getInstance(), () ->
+                new ViewRecipeMenu(player, RecipeManager.getInstance().getType(recipeName), recipeName).openMenu());
+    }
+
+    @Override
+    public void onDrag(InventoryDragEvent event) {
+        for (int slot : event.getRawSlots()) {
+            if (slot < inventory.getSize()) {
+                event.setCancelled(true);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onInventoryClose(InventoryCloseEvent event) {
+        closed = true;
+    }
+}
@@ -0,0 +1,146 @@
+package be.razerstorm.customcrafting.inventories;
+
+import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.managers.LayoutManager;
+import be.razerstorm.customcrafting.managers.MessageManager;
+import be.razerstorm.customcrafting.managers.RecipeManager;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.objects.RecipeRegistry;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Страницы браузера строятся вне главного потока и общие для всех, кэш привязан к снимку реестра
+public class RecipeBrowserPages {
+
+    private static RecipeBrowserPages instance;
+
+    private final Executor async = runnable -> Bukkit.getScheduler().runTaskAsynchronously(CustomCrafting.getInstance(), runnable);
+
+    // Только в главном потоке
+    private RecipeRegistry registry;
+    private Map<Integer, CompletableFuture<Page>> pages = new HashMap<>();
+
+    // Номер страницы с 1, ограничивается существующими страницами
+    public CompletableFuture<Page> getPage(int number) {
+        RecipeRegistry current = RecipeManager.getInstance().getRegistry();
+        if (current != registry) {
+            registry = current;
+            pages = new HashMap<>();
+        }
+
+        int page = Math.max(1, Math.min(number, getPageCount(current)));
+        CompletableFuture<Page> future = pages.get(page);
+        if (future == null || future.isCompletedExceptionally()) {
+            LayoutManager layouts = LayoutManager.getInstance();
+            MenuLayout layout = layouts.getBrowser();
+            ItemStack previous = layouts.getBrowserPrevious();
+            ItemStack next = layouts.getBrowserNext();
+
+            future = CompletableFuture.supplyAsync(() -> build(current, page, layout, previous, next), async);
+            pages.put(page, future);
+        }
+        return future;
+    }
+
+    public void prefetch(int number) {
+        if (number >= 1 && number <= getPageCount(RecipeManager.getInstance().getRegistry())) getPage(number);
+    }
+
+    // Сбрасывает все страницы, когда меняются сообщения и вместе с ними иконки
+    public void invalidate() {
+        registry = null;
+        pages = new HashMap<>();
+    }
+
+    private static int getPageCount(RecipeRegistry registry) {
+        return Math.max(1, (registry.size() + LayoutManager.BROWSER_PAGE_SIZE - 1) / LayoutManager.BROWSER_PAGE_SIZE);
+    }
+
+    private static Page build(RecipeRegistry registry, int page, MenuLayout layout, ItemStack previous, ItemStack next) {
+        MessageManager msg = MessageManager.getInstance();
+        List<String> names = registry.getNameIndex().getNames();
+        int pages = getPageCount(registry);
+        int start = (page - 1) * LayoutManager.BROWSER_PAGE_SIZE;
+        int end = Math.min(start + LayoutManager.BROWSER_PAGE_SIZE, names.size());
+
+        ItemStack[] contents = layout.getContents();
+        String[] pageNames = new String[end - start];
+        Map<String, String> placeholders = new HashMap<>();
+        for (int i = start; i < end; i++) {
+            CustomRecipe recipe = registry.get(names.get(i));
+            placeholders.put("name", recipe.getName());
+            placeholders.put("type", recipe.getType().name());
+
+            pageNames[i - start] = recipe.getName();
+            contents[i - start] = icon(recipe, msg.getMessageList("items.browser.recipe.lore", placeholders));
+        }
+
+        placeholders.clear();
+        placeholders.put("page", String.valueOf(page));
+        placeholders.put("pages", String.valueOf(pages));
+        placeholders.put("count", String.valueOf(names.size()));
+        ItemStack info = contents[LayoutManager.BROWSER_INFO_SLOT].clone();
+        ItemMeta meta = info.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(msg.getMessage("items.browser.page.name", placeholders));
+            meta.setLore(msg.getMessageList("items.browser.page.lore", placeholders));
+            info.setItemMeta(meta);
+        }
+        contents[LayoutManager.BROWSER_INFO_SLOT] = info;
+
+        if (page > 1) contents[LayoutManager.BROWSER_PREVIOUS_SLOT] = previous;
+        if (page < pages) contents[LayoutManager.BROWSER_NEXT_SLOT] = next;
+
+        return new Page(page, pages, pageNames, contents);
+    }
+
+    private static ItemStack icon(CustomRecipe recipe, List<String> extraLore) {
+        ItemStack icon = recipe.getOutput().clone();
+        ItemMeta meta = icon.getItemMeta();
+        if (meta == null) return icon;
+
+        List<String> lore = meta.hasLore() ? new ArrayList<>(meta.getLore()) : new ArrayList<>();
+        lore.addAll(extraLore);
+        meta.setLore(lore);
+        icon.setItemMeta(meta);
+        return icon;
+    }
+
+    public static RecipeBrowserPages getInstance() {
+        if (instance == null) {
+            instance = new RecipeBrowserPages();
+        }
+        return instance;
+    }
+
+    public static final class Page {
+        private final @Getter int number;
+        private final @Getter int pages;
+        private final String[] names;
+        private final ItemStack[] contents;
+
+        private Page(int number, int pages, String[] names, ItemStack[] contents) {
+            this.number = number;
+            this.pages = pages;
+            this.names = names;
+            this.contents = contents;
+        }
+
+        public String getRecipe(int slot) {
+            return slot >= 0 && slot < names.length ? names[slot] : null;
+        }
+
+        public ItemStack[] getContents() {
+            return contents.clone();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package be.razerstorm.customcrafting.listeners;
+
+import be.razerstorm.customcrafting.commands.CustomCraftingCommand;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Отвечает на дополнение /cc из асинхронного события Paper, на Spigot работает обычный TabCompleter
+public class AsyncTabCompleteListener implements Listener, EventExecutor {
+
+    private static final String EVENT_CLASS = "com.destroystokyo.paper.event.server.AsyncTabCompleteEvent";
+
+    private final CustomCraftingCommand completer;
+    private final Set<String> labels = new HashSet<>();
+    private final Class<? extends Event> eventClass;
+    private final MethodHandle getSender;
+    private final MethodHandle getBuffer;
+    private final MethodHandle isHandled;
+    private final MethodHandle setHandled;
+    private final MethodHandle setCompletions;
+
+    private AsyncTabCompleteListener(Class<? extends Event> eventClass, PluginCommand command, CustomCraftingCommand completer) throws ReflectiveOperationException {
+        this.eventClass = eventClass;
+        this.completer = completer;
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        this.getSender = lookup.findVirtual(eventClass, "getSender", MethodType.methodType(CommandSender.class));
+        this.getBuffer = lookup.findVirtual(eventClass, "getBuffer", MethodType.methodType(String.class));
+        this.isHandled = lookup.findVirtual(eventClass, "isHandled", MethodType.methodType(boolean.class));
+        this.setHandled = lookup.findVirtual(eventClass, "setHandled", MethodType.methodType(void.class, boolean.class));
+        this.setCompletions = lookup.findVirtual(eventClass, "setCompletions", MethodType.methodType(void.class, List.class));
+
+        String prefix = command.getPlugin().getName().toLowerCase(Locale.ROOT) + ":";
+        addLabel(prefix, command.getName());
+        command.getAliases().forEach(alias -> addLabel(prefix, alias));
+    }
+
+    // true, если работает асинхронное дополнение
+    public static boolean register(Plugin plugin, PluginCommand command, CustomCraftingCommand completer) {
+        Class<? extends Event> eventClass;
+        try {
+            eventClass = Class.forName(EVENT_CLASS).asSubclass(Event.class);
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+
+        try {
+            AsyncTabCompleteListener listener = new AsyncTabCompleteListener(eventClass, command, completer);
+            Bukkit.getPluginManager().registerEvent(eventClass, listener, EventPriority.NORMAL, listener, plugin, true);
+            return true;
+        } catch (ReflectiveOperationException e) {
+            plugin.getLogger().warning("Could not hook into async tab completion: " + e);
+            return false;
+        }
+    }
+
+    @Override
+    public void execute(Listener listener, Event event) {
+        if (!eventClass.isInstance(event)) return;
+
+        try {
+            if ((boolean) isHandled.invoke(event)) return;
+
+            CommandSender sender = (CommandSender) getSender.invoke(event);
+            String buffer = (String) getBuffer.invoke(event);
+            if (buffer.startsWith("/")) {
+                buffer = buffer.substring(1);
+            } else if (sender instanceof Player) {
+                // Дополнение чата, не команда
+                return;
+            }
+
+            int space = buffer.indexOf(' ');
+            if (space == -1 || !labels.contains(buffer.substring(0, space).toLowerCase(Locale.ROOT))) return;
+
+            String[] args = buffer.substring(space + 1).split(" ", -1);
+            setCompletions.invoke(event, completer.complete(sender, args));
+            setHandled.invoke(event, true);
+        } catch (Throwable e) {
+            // Не трогаем событие, ответит обычный TabCompleter
+        }
+    }
+
+    private void addLabel(String prefix, String label) {
+        String lowerLabel = label.toLowerCase(Locale.ROOT);
+        labels.add(lowerLabel);
+        labels.add(prefix + lowerLabel);
+    }
+}
@@ -0,0 +1,117 @@
+package be.razerstorm.customcrafting.listeners;
+
+import be.razerstorm.customcrafting.managers.PermissionManager;
+import be.razerstorm.customcrafting.managers.RecipeManager;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import org.bukkit.Bukkit;
+import org.bukkit.Keyed;
+import org.bukkit.Material;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.inventory.PrepareItemCraftEvent;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+// Решает результат наших рецептов, которые сервер сравнивает только по материалам, и проверяет права на рецепт
+public class CraftingMatcherListener implements Listener {
+
+    private static final String CRAFTER_EVENT_CLASS = "org.bukkit.event.block.CrafterCraftEvent";
+
+    public static void register(Plugin plugin) {
+        Bukkit.getPluginManager().registerEvents(new CraftingMatcherListener(), plugin);
+        CrafterHook.register(plugin);
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onPrepareItemCraft(PrepareItemCraftEvent event) {
+        ItemStack result = match(event.getRecipe(), event.getInventory().getMatrix(), event.getView().getPlayer());
+        if (result != null) event.getInventory().setResult(result);
+    }
+
+    // AIR, если совпали только материалы, null, если рецепт обрабатывается не здесь
+    private static ItemStack match(Recipe recipe, ItemStack[] matrix, HumanEntity crafter) {
+        RecipeManager recipeManager = RecipeManager.getInstance();
+        if (!recipeManager.isOwnRecipe(recipe)) return null;
+        // Регистрация не закончена, на сервере может быть старая версия рецепта
+        if (!recipeManager.isRegistrationSettled()) return new ItemStack(Material.AIR);
+        if (!recipeManager.isMatcherEnabled()) {
+            CustomRecipe serverMatch = recipeManager.getRecipe(((Keyed) recipe).getKey().getKey());
+            if (serverMatch == null) return null;
+            if (!isAllowed(crafter, serverMatch)) return new ItemStack(Material.AIR);
+            if (serverMatch.isServerMatched()) return null;
+        }
+
+        CustomRecipe match = recipeManager.getMatcher().match(matrix);
+        return match == null || !isAllowed(crafter, match) ? new ItemStack(Material.AIR) : match.getOutput().clone();
+    }
+
+    private static boolean isAllowed(HumanEntity crafter, CustomRecipe recipe) {
+        return crafter == null || PermissionManager.getInstance().isAllowed(crafter, recipe.getName());
+    }
+
+    // Крафтеры (1.21+) крафтят без игрока, событие ищется через рефлексию для старых серверов
+    private static final class CrafterHook implements Listener, EventExecutor {
+        private final Class<? extends Event> eventClass;
+        private final MethodHandle getRecipe;
+        private final MethodHandle setResult;
+
+        private CrafterHook(Class<? extends Event> eventClass) throws ReflectiveOperationException {
+            this.eventClass = eventClass;
+
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            this.getRecipe = lookup.findVirtual(eventClass, "getRecipe", MethodType.methodType(Class.forName("org.bukkit.inventory.CraftingRecipe")));
+            this.setResult = lookup.findVirtual(eventClass, "setResult", MethodType.methodType(void.class, ItemStack.class));
+        }
+
+        private static void register(Plugin plugin) {
+            Class<? extends Event> eventClass;
+            try {
+                eventClass = Class.forName(CRAFTER_EVENT_CLASS).asSubclass(Event.class);
+            } catch (ClassNotFoundException e) {
+                return;
+            }
+
+            try {
+                CrafterHook hook = new CrafterHook(eventClass);
+                Bukkit.getPluginManager().registerEvent(eventClass, hook, EventPriority.HIGH, hook, plugin, true);
+            } catch (ReflectiveOperationException e) {
+                plugin.getLogger().warning("Could not hook into crafters: " + e);
+            }
+        }
+
+        @Override
+        public void execute(Listener listener, Event event) {
+            if (!eventClass.isInstance(event)) return;
+
+            try {
+                BlockState state = ((BlockEvent) event).getBlock().getState();
+                if (!(state instanceof InventoryHolder)) return;
+
+                ItemStack result = match((Recipe) getRecipe.invoke(event), ((InventoryHolder) state).getInventory().getContents(), null);
+                if (result == null) return;
+
+                if (result.getType() == Material.AIR) {
+                    ((Cancellable) event).setCancelled(true);
+                } else {
+                    setResult.invoke(event, result);
+                }
+            } catch (Throwable e) {
+                // Сервер сравнил только материалы, лучше не крафтить, чем скрафтить не то
+                ((Cancellable) event).setCancelled(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package be.razerstorm.customcrafting.listeners;
+
+import be.razerstorm.customcrafting.managers.PermissionManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+// Bukkit не сообщает об изменении прав, но список команд отправляется при входе и после изменения прав
+public class PermissionListener implements Listener {
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        PermissionManager.getInstance().remove(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCommandSend(PlayerCommandSendEvent event) {
+        PermissionManager.getInstance().invalidate(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        PermissionManager.getInstance().invalidate(event.getPlayer());
+    }
+}
@@ -0,0 +1,226 @@
+package be.razerstorm.customcrafting.managers;
+
+import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.enums.DiscoveryPolicy;
+import be.razerstorm.customcrafting.objects.RecipeIndices;
+import be.razerstorm.customcrafting.objects.RecipeRegistry;
+import lombok.Getter;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Добавляет наши рецепты в книги рецептов игроков понемногу за тик, только главный поток
+public class DiscoveryManager {
+
+    private static DiscoveryManager instance;
+    private final CustomCrafting plugin = CustomCrafting.getInstance();
+
+    private final RecipeIndices indices = RecipeIndices.getInstance();
+
+    private final Map<UUID, PlayerDiscovery> players = new HashMap<>();
+    private final Deque<PlayerDiscovery> queue = new ArrayDeque<>();
+    private BukkitTask task;
+
+    private @Getter DiscoveryPolicy policy = DiscoveryPolicy.NONE;
+    private int batchSize;
+    private long joinDelay;
+
+    public void loadSettings() {
+        policy = DiscoveryPolicy.fromString(plugin.getConfig().getString("discovery"));
+        batchSize = Math.max(1, plugin.getConfig().getInt("discovery-batch-size", 64));
+        joinDelay = Math.max(0, plugin.getConfig().getLong("discovery-delay-ticks", 40L));
+    }
+
+    public void join(Player player) {
+        if (policy == DiscoveryPolicy.NONE) return;
+
+        PlayerDiscovery discovery = new PlayerDiscovery(player.getUniqueId());
+        players.put(discovery.uuid, discovery);
+        if (policy == DiscoveryPolicy.PICKUP) return;
+
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            if (players.get(discovery.uuid) == discovery) rescan(discovery);
+        }, joinDelay);
+    }
+
+    public void quit(Player player) {
+        PlayerDiscovery discovery = players.remove(player.getUniqueId());
+        if (discovery != null) queue.remove(discovery);
+    }
+
+    // Открывает рецепты с этим материалом для политики pickup, каждый материал проверяется один раз на игрока
+    public void pickup(Player player, Material material) {
+        if (policy != DiscoveryPolicy.PICKUP) return;
+
+        PlayerDiscovery discovery = players.get(player.getUniqueId());
+        if (discovery == null || !discovery.pickedUp.add(material)) return;
+
+        for (String recipeName : RecipeManager.getInstance().getRegistry().findByInput(material)) {
+            discovery.wanted.set(indices.indexOf(recipeName));
+        }
+        enqueue(discovery);
+    }
+
+    // Вызывается после регистрации рецептов при перезагрузке, ставит всех игроков в очередь снова
+    public void reload() {
+        loadSettings();
+
+        RecipeRegistry registry = RecipeManager.getInstance().getRegistry();
+        for (int index = 0; index < indices.size(); index++) {
+            if (!registry.contains(indices.nameOf(index))) forget(index);
+        }
+        // Повторная проверка идёт по индексам, каждому рецепту нужен индекс
+        registry.getNames().forEach(indices::indexOf);
+
+        if (policy == DiscoveryPolicy.NONE) {
+            players.clear();
+            queue.clear();
+            return;
+        }
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            PlayerDiscovery discovery = players.computeIfAbsent(player.getUniqueId(), PlayerDiscovery::new);
+            discovery.pickedUp.clear();
+            if (policy != DiscoveryPolicy.PICKUP) rescan(discovery);
+        }
+    }
+
+    public void recipeAdded(String recipeName) {
+        int index = indices.indexOf(recipeName);
+        if (policy != DiscoveryPolicy.ALL && policy != DiscoveryPolicy.PERMISSION) return;
+
+        for (PlayerDiscovery discovery : players.values()) {
+            if (discovery.known.get(index)) continue;
+            discovery.wanted.set(index);
+            enqueue(discovery);
+        }
+    }
+
+    public void forget(String recipeName) {
+        int index = indices.find(recipeName);
+        if (index != -1) forget(index);
+    }
+
+    private void forget(int index) {
+        for (PlayerDiscovery discovery : players.values()) {
+            discovery.known.clear(index);
+            discovery.wanted.clear(index);
+        }
+    }
+
+    private void rescan(PlayerDiscovery discovery) {
+        discovery.cursor = 0;
+        discovery.scanEnd = indices.size();
+        enqueue(discovery);
+    }
+
+    private void enqueue(PlayerDiscovery discovery) {
+        if (!discovery.queued) {
+            discovery.queued = true;
+            queue.add(discovery);
+        }
+        if (task == null) {
+            task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    private void tick() {
+        RecipeManager recipeManager = RecipeManager.getInstance();
+        // Ключи, которые ещё не зарегистрированы, сервер бы выбросил
+        if (!recipeManager.isRegistrationSettled()) return;
+
+        RecipeRegistry registry = recipeManager.getRegistry();
+        int budget = batchSize;
+        int rounds = queue.size();
+        while (budget > 0 && rounds-- > 0 && !queue.isEmpty()) {
+            PlayerDiscovery discovery = queue.poll();
+            Player player = plugin.getServer().getPlayer(discovery.uuid);
+            if (player == null) {
+                discovery.queued = false;
+                continue;
+            }
+
+            List<NamespacedKey> keys = new ArrayList<>();
+            // Известные и запрещённые рецепты тоже ограничены, чтобы повторная проверка оставалась дешёвой
+            int checks = budget * 4;
+            while (keys.size() < budget && checks-- > 0) {
+                String recipeName = next(discovery);
+                if (recipeName == null) break;
+
+                int index = indices.indexOf(recipeName);
+                if (discovery.known.get(index) || !registry.contains(recipeName)) continue;
+                if (policy == DiscoveryPolicy.PERMISSION && !player.hasPermission("customcrafting.discover." + recipeName)) continue;
+
+                discovery.known.set(index);
+                keys.add(new NamespacedKey(plugin, recipeName));
+            }
+
+            if (!keys.isEmpty()) {
+                player.discoverRecipes(keys);
+                budget -= keys.size();
+            }
+
+            if (discovery.hasNext()) {
+                queue.add(discovery);
+            } else {
+                discovery.queued = false;
+            }
+        }
+
+        if (queue.isEmpty()) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    // Сначала рецепты, открытые напрямую, потом повторная проверка
+    private String next(PlayerDiscovery discovery) {
+        int wanted = discovery.wanted.nextSetBit(0);
+        if (wanted >= 0) {
+            discovery.wanted.clear(wanted);
+            return indices.nameOf(wanted);
+        }
+        if (discovery.cursor < discovery.scanEnd) {
+            return indices.nameOf(discovery.cursor++);
+        }
+        return null;
+    }
+
+    private static class PlayerDiscovery {
+        private final UUID uuid;
+        // Индексы рецептов, уже отправленных игроку
+        private final BitSet known = new BitSet();
+        private final BitSet wanted = new BitSet();
+        private final Set<Material> pickedUp = EnumSet.noneOf(Material.class);
+        // Позиция повторной проверки в индексах, до рецептов, известных на момент её начала
+        private int cursor;
+        private int scanEnd;
+        private boolean queued;
+
+        private PlayerDiscovery(UUID uuid) {
+            this.uuid = uuid;
+        }
+
+        private boolean hasNext() {
+            return !wanted.isEmpty() || cursor < scanEnd;
+        }
+    }
+
+    public static DiscoveryManager getInstance() {
+        if (instance == null) {
+            instance = new DiscoveryManager();
+        }
+        return instance;
+    }
+}
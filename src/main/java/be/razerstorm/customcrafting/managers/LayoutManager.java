@@ -0,0 +1,120 @@
+package be.razerstorm.customcrafting.managers;
+
+import be.razerstorm.customcrafting.inventories.MenuLayout;
+import be.razerstorm.customcrafting.inventories.RecipeBrowserPages;
+import be.razerstorm.customcrafting.utils.ItemBuilder;
+import com.cryptomorin.xseries.XMaterial;
+import lombok.Getter;
+import org.bukkit.inventory.ItemStack;
+
+// Статичные части меню собираются один раз и пересобираются при (пере)загрузке сообщений
+public class LayoutManager {
+
+    public static final int MENU_SIZE = 5 * 9;
+    public static final int[] GRID_SLOTS = {10, 11, 12, 19, 20, 21, 28, 29, 30};
+    public static final int OUTPUT_SLOT = 23;
+    public static final int SUBMIT_SLOT = 25;
+    public static final int FURNACE_INPUT_SLOT = 10;
+    public static final int FURNACE_FUEL_SLOT = 28;
+    public static final int BROWSER_SIZE = 6 * 9;
+    public static final int BROWSER_PAGE_SIZE = 5 * 9;
+    public static final int BROWSER_PREVIOUS_SLOT = 45;
+    public static final int BROWSER_INFO_SLOT = 49;
+    public static final int BROWSER_NEXT_SLOT = 53;
+
+    private static LayoutManager instance;
+
+    private @Getter MenuLayout manageCrafting;
+    private @Getter MenuLayout manageFurnace;
+    private @Getter MenuLayout viewCrafting;
+    private @Getter MenuLayout viewFurnace;
+    private @Getter MenuLayout manageStonecutting;
+    private @Getter MenuLayout viewStonecutting;
+    private @Getter MenuLayout browser;
+    private @Getter ItemStack browserPrevious;
+    private @Getter ItemStack browserNext;
+    private @Getter ItemStack validSubmit;
+    private @Getter ItemStack invalidSubmit;
+
+    public void reload() {
+        MessageManager msg = MessageManager.getInstance();
+
+        ItemStack filler = new ItemBuilder(XMaterial.BLACK_STAINED_GLASS_PANE.parseMaterial())
+                .setColoredName("&8")
+                .toItemStack();
+        ItemStack invalidSlot = new ItemBuilder(XMaterial.RED_STAINED_GLASS_PANE.parseMaterial())
+                .setColoredName(msg.getMessage("items.invalid-slot.name"))
+                .setLore(msg.getMessage("items.invalid-slot.lore"))
+                .toItemStack();
+
+        validSubmit = new ItemBuilder(XMaterial.GREEN_WOOL.parseMaterial())
+                .setColoredName(msg.getMessage("items.submit.valid.name"))
+                .toItemStack();
+        invalidSubmit = new ItemBuilder(XMaterial.RED_WOOL.parseMaterial())
+                .setColoredName(msg.getMessage("items.submit.invalid.name"))
+                .setLore(msg.getMessage("items.submit.invalid.lore"))
+                .toItemStack();
+
+        manageCrafting = MenuLayout.builder(MENU_SIZE, filler)
+                .open(GRID_SLOTS)
+                .open(OUTPUT_SLOT)
+                .build();
+        manageFurnace = MenuLayout.builder(MENU_SIZE, filler)
+                .open(FURNACE_INPUT_SLOT, OUTPUT_SLOT)
+                .set(FURNACE_FUEL_SLOT, invalidSlot)
+                .build();
+        manageStonecutting = MenuLayout.builder(MENU_SIZE, filler)
+                .open(FURNACE_INPUT_SLOT, OUTPUT_SLOT)
+                .build();
+
+        ItemStack craftingArrow = new ItemBuilder(XMaterial.ARROW.parseMaterial())
+                .setColoredName(msg.getMessage("items.crafting-result.name"))
+                .toItemStack();
+        ItemStack smeltingArrow = new ItemBuilder(XMaterial.ARROW.parseMaterial())
+                .setColoredName(msg.getMessage("items.smelting-result.name"))
+                .toItemStack();
+        ItemStack stonecuttingArrow = new ItemBuilder(XMaterial.ARROW.parseMaterial())
+                .setColoredName(msg.getMessage("items.stonecutting-result.name"))
+                .toItemStack();
+        ItemStack fuel = new ItemBuilder(XMaterial.COAL.parseMaterial())
+                .setColoredName(msg.getMessage("items.fuel.name"))
+                .toItemStack();
+
+        viewCrafting = MenuLayout.builder(MENU_SIZE, filler)
+                .clear(GRID_SLOTS)
+                .clear(OUTPUT_SLOT)
+                .set(22, craftingArrow)
+                .build();
+        viewFurnace = MenuLayout.builder(MENU_SIZE, filler)
+                .clear(FURNACE_INPUT_SLOT, 19, OUTPUT_SLOT)
+                .set(22, smeltingArrow)
+                .set(FURNACE_FUEL_SLOT, fuel)
+                .build();
+        viewStonecutting = MenuLayout.builder(MENU_SIZE, filler)
+                .clear(FURNACE_INPUT_SLOT, OUTPUT_SLOT)
+                .set(22, stonecuttingArrow)
+                .build();
+
+        browserPrevious = new ItemBuilder(XMaterial.ARROW.parseMaterial())
+                .setColoredName(msg.getMessage("items.browser.previous.name"))
+                .toItemStack();
+        browserNext = new ItemBuilder(XMaterial.ARROW.parseMaterial())
+                .setColoredName(msg.getMessage("items.browser.next.name"))
+                .toItemStack();
+        MenuLayout.Builder browserBuilder = MenuLayout.builder(BROWSER_SIZE, filler)
+                .set(BROWSER_INFO_SLOT, new ItemBuilder(XMaterial.BOOK.parseMaterial()).toItemStack());
+        for (int slot = 0; slot < BROWSER_PAGE_SIZE; slot++) {
+            browserBuilder.clear(slot);
+        }
+        browser = browserBuilder.build();
+
+        RecipeBrowserPages.getInstance().invalidate();
+    }
+
+    public static LayoutManager getInstance() {
+        if (instance == null) {
+            instance = new LayoutManager();
+        }
+        return instance;
+    }
+}
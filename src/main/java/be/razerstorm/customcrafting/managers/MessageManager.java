@@ -1,7 +1,7 @@
 package be.razerstorm.customcrafting.managers;
 
 import be.razerstorm.customcrafting.CustomCrafting;
-import be.razerstorm.customcrafting.utils.Utils;
+import be.razerstorm.customcrafting.objects.MessageTemplate;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
@@ -9,9 +9,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class MessageManager {
 
@@ -19,6 +23,8 @@ public class MessageManager {
     private final CustomCrafting plugin = CustomCrafting.getInstance();
     private FileConfiguration messages;
     private File messagesFile;
+    // Заменяется целиком при (пере)загрузке, читатели не видят наполовину собранный набор
+    private volatile Templates templates = new Templates(Collections.emptyMap(), Collections.emptyMap());
 
     public void loadMessages() {
         messagesFile = new File(plugin.getDataFolder(), "messages.yml");
@@ -27,21 +33,44 @@ public class MessageManager {
             plugin.saveResource("messages.yml", false);
         }
 
-        messages = YamlConfiguration.loadConfiguration(messagesFile);
+        load();
+    }
+
+    public void reloadMessages() {
+        if (messagesFile == null) {
+            messagesFile = new File(plugin.getDataFolder(), "messages.yml");
+        }
+        load();
+    }
+
+    private void load() {
+        YamlConfiguration messages = YamlConfiguration.loadConfiguration(messagesFile);
+        Set<String> paths = new LinkedHashSet<>(messages.getKeys(true));
 
         // Загружаем дефолтные значения
         InputStream defConfigStream = plugin.getResource("messages.yml");
         if (defConfigStream != null) {
             YamlConfiguration defConfig = YamlConfiguration.loadConfiguration(new InputStreamReader(defConfigStream));
             messages.setDefaults(defConfig);
+            paths.addAll(defConfig.getKeys(true));
         }
-    }
 
-    public void reloadMessages() {
-        if (messagesFile == null) {
-            messagesFile = new File(plugin.getDataFolder(), "messages.yml");
+        Map<String, MessageTemplate> compiled = new HashMap<>();
+        Map<String, List<MessageTemplate>> compiledLists = new HashMap<>();
+        for (String path : paths) {
+            if (messages.isString(path)) {
+                compiled.put(path, MessageTemplate.compile(messages.getString(path)));
+            } else if (messages.isList(path)) {
+                List<MessageTemplate> lines = new ArrayList<>();
+                messages.getStringList(path).forEach(line -> lines.add(MessageTemplate.compile(line)));
+                compiledLists.put(path, Collections.unmodifiableList(lines));
+            }
         }
-        messages = YamlConfiguration.loadConfiguration(messagesFile);
+
+        this.messages = messages;
+        this.templates = new Templates(compiled, compiledLists);
+
+        LayoutManager.getInstance().reload();
     }
 
     public void saveMessages() {
@@ -56,39 +85,60 @@ public class MessageManager {
     }
 
     public String getMessage(String path) {
-        return getMessage(path, new HashMap<>());
+        return getMessage(path, Collections.emptyMap());
     }
 
     public String getMessage(String path, Map<String, String> placeholders) {
-        String message = messages.getString(path, "&cMessage not found: " + path);
-        
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            message = message.replace("{" + entry.getKey() + "}", entry.getValue());
-        }
-        
-        return Utils.color(message);
+        return getTemplate(path).render(placeholders);
     }
 
     public String getMessageWithPrefix(String path) {
-        return getMessageWithPrefix(path, new HashMap<>());
+        return getMessageWithPrefix(path, Collections.emptyMap());
     }
 
     public String getMessageWithPrefix(String path, Map<String, String> placeholders) {
-        String prefix = getMessage("prefix");
-        String message = getMessage(path, placeholders);
-        return prefix + " " + message;
+        StringBuilder builder = MessageTemplate.builder();
+        getTemplate("prefix").appendTo(builder, Collections.emptyMap());
+        builder.append(' ');
+        getTemplate(path).appendTo(builder, placeholders);
+        return builder.toString();
     }
 
     public List<String> getMessageList(String path) {
-        List<String> messages = this.messages.getStringList(path);
-        messages.replaceAll(Utils::color);
+        return getMessageList(path, Collections.emptyMap());
+    }
+
+    public List<String> getMessageList(String path, Map<String, String> placeholders) {
+        List<MessageTemplate> lines = templates.lists.getOrDefault(path, Collections.emptyList());
+        List<String> messages = new ArrayList<>(lines.size());
+        for (MessageTemplate line : lines) {
+            messages.add(line.render(placeholders));
+        }
         return messages;
     }
 
+    public MessageTemplate getTemplate(String path) {
+        MessageTemplate template = templates.messages.get(path);
+        if (template == null) {
+            return MessageTemplate.compile("&cMessage not found: " + path);
+        }
+        return template;
+    }
+
     public static MessageManager getInstance() {
         if (instance == null) {
             instance = new MessageManager();
         }
         return instance;
     }
+
+    private static final class Templates {
+        private final Map<String, MessageTemplate> messages;
+        private final Map<String, List<MessageTemplate>> lists;
+
+        private Templates(Map<String, MessageTemplate> messages, Map<String, List<MessageTemplate>> lists) {
+            this.messages = messages;
+            this.lists = lists;
+        }
+    }
 }
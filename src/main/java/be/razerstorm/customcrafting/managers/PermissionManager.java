@@ -0,0 +1,185 @@
+package be.razerstorm.customcrafting.managers;
+
+import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.objects.RecipeIndices;
+import be.razerstorm.customcrafting.objects.RecipeRegistry;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.Permissible;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+// Права на отдельные рецепты: у каждого игрока битовая карта разрешённых рецептов, до её готовности право проверяется напрямую
+public class PermissionManager {
+
+    public static final String PERMISSION_PREFIX = "customcrafting.recipe.";
+    private static final String WILDCARD = PERMISSION_PREFIX + "*";
+
+    private static PermissionManager instance;
+    private final CustomCrafting plugin = CustomCrafting.getInstance();
+    private final RecipeIndices indices = RecipeIndices.getInstance();
+
+    private final Map<UUID, PlayerPermissions> players = new ConcurrentHashMap<>();
+    private volatile @Getter boolean enabled;
+
+    public void loadSettings() {
+        enabled = plugin.getConfig().getBoolean("recipe-permissions", false);
+        if (!enabled) players.clear();
+    }
+
+    // Пересчитывает карту на следующем тике, вызовы в одном тике дают один пересчёт, только главный поток
+    public void invalidate(Player player) {
+        if (!enabled) return;
+
+        PlayerPermissions permissions = players.computeIfAbsent(player.getUniqueId(), uuid -> new PlayerPermissions());
+        if (permissions.scheduled) return;
+        permissions.scheduled = true;
+
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            permissions.scheduled = false;
+            if (!player.isOnline() || players.get(player.getUniqueId()) != permissions) return;
+            compute(player, permissions);
+        });
+    }
+
+    // Текущая карта используется, пока новая не опубликована в главном потоке
+    private void compute(Player player, PlayerPermissions permissions) {
+        int generation = permissions.generation.incrementAndGet();
+        Snapshot snapshot = Snapshot.of(player);
+        permissions.snapshot = snapshot;
+        RecipeRegistry registry = RecipeManager.getInstance().getRegistry();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            BitSet allowed = new BitSet(indices.size());
+            for (String recipeName : registry.getNames()) {
+                if (snapshot.allows(recipeName)) allowed.set(indices.indexOf(recipeName));
+            }
+
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                // Тем временем начался более новый пересчёт, его результат важнее
+                if (permissions.generation.get() != generation) return;
+
+                // Рецепты, добавленные или удалённые за время пересчёта
+                RecipeRegistry current = RecipeManager.getInstance().getRegistry();
+                if (current != registry) {
+                    for (String recipeName : current.getNames()) {
+                        if (!registry.contains(recipeName)) allowed.set(indices.indexOf(recipeName), snapshot.allows(recipeName));
+                    }
+                    for (String recipeName : registry.getNames()) {
+                        if (!current.contains(recipeName)) allowed.clear(indices.indexOf(recipeName));
+                    }
+                }
+                permissions.allowed = allowed;
+            });
+        });
+    }
+
+    // Ставит бит нового рецепта каждому игроку по последнему снимку его прав, только главный поток
+    public void recipeAdded(String recipeName) {
+        if (!enabled) return;
+
+        int index = indices.indexOf(recipeName);
+        for (PlayerPermissions permissions : players.values()) {
+            BitSet allowed = permissions.allowed;
+            if (allowed == null || permissions.snapshot == null) continue;
+
+            BitSet updated = (BitSet) allowed.clone();
+            updated.set(index, permissions.snapshot.allows(recipeName));
+            permissions.allowed = updated;
+        }
+    }
+
+    public void recipeRemoved(String recipeName) {
+        int index = indices.find(recipeName);
+        if (!enabled || index == -1) return;
+
+        for (PlayerPermissions permissions : players.values()) {
+            BitSet allowed = permissions.allowed;
+            if (allowed == null || !allowed.get(index)) continue;
+
+            BitSet updated = (BitSet) allowed.clone();
+            updated.clear(index);
+            permissions.allowed = updated;
+        }
+    }
+
+    // После перезагрузки могли измениться настройки и все рецепты
+    public void invalidateAll() {
+        loadSettings();
+        if (!enabled) return;
+
+        plugin.getServer().getOnlinePlayers().forEach(this::invalidate);
+    }
+
+    public void remove(Player player) {
+        players.remove(player.getUniqueId());
+    }
+
+    // Можно вызывать из любого потока, вне главного потока игроку без карты отказано
+    public boolean isAllowed(Permissible permissible, String recipeName) {
+        if (!enabled || !(permissible instanceof Player)) return true;
+
+        PlayerPermissions permissions = players.get(((Player) permissible).getUniqueId());
+        BitSet allowed = permissions == null ? null : permissions.allowed;
+        int index = indices.find(recipeName);
+        if (allowed != null && index != -1) return allowed.get(index);
+        return Bukkit.isPrimaryThread() && permissible.hasPermission(PERMISSION_PREFIX + recipeName);
+    }
+
+    // Можно вызывать из любого потока
+    public Predicate<String> visibleTo(CommandSender sender) {
+        if (!enabled || !(sender instanceof Player)) return recipeName -> true;
+        return recipeName -> isAllowed(sender, recipeName);
+    }
+
+    private static class PlayerPermissions {
+        private final AtomicInteger generation = new AtomicInteger();
+        // Не меняется после публикации, заменяется в главном потоке, null до первого пересчёта
+        private volatile BitSet allowed;
+        private Snapshot snapshot;
+        private boolean scheduled;
+    }
+
+    // Permissible не потокобезопасен, эффективные права копируются в главном потоке
+    private static class Snapshot {
+        private final Map<String, Boolean> effective;
+        private final boolean op;
+
+        private Snapshot(Map<String, Boolean> effective, boolean op) {
+            this.effective = effective;
+            this.op = op;
+        }
+
+        private static Snapshot of(Player player) {
+            Map<String, Boolean> effective = new HashMap<>();
+            for (PermissionAttachmentInfo info : player.getEffectivePermissions()) {
+                effective.put(info.getPermission().toLowerCase(Locale.ROOT), info.getValue());
+            }
+            return new Snapshot(effective, player.isOp());
+        }
+
+        // Как hasPermission: сначала явное право, потом wildcard, иначе по умолчанию op
+        private boolean allows(String recipeName) {
+            Boolean value = effective.get((PERMISSION_PREFIX + recipeName).toLowerCase(Locale.ROOT));
+            if (value == null) value = effective.get(WILDCARD);
+            return value == null ? op : value;
+        }
+    }
+
+    public static PermissionManager getInstance() {
+        if (instance == null) {
+            instance = new PermissionManager();
+        }
+        return instance;
+    }
+}
@@ -1,241 +1,463 @@
 package be.razerstorm.customcrafting.managers;
 
 import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.codecs.RecipeCodecs;
 import be.razerstorm.customcrafting.enums.RecipeType;
+import be.razerstorm.customcrafting.enums.StorageType;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.objects.IngredientMatch;
+import be.razerstorm.customcrafting.objects.IngredientPool;
+import be.razerstorm.customcrafting.objects.RecipeConflict;
+import be.razerstorm.customcrafting.objects.RecipeDiff;
 import be.razerstorm.customcrafting.objects.RecipeInfo;
+import be.razerstorm.customcrafting.objects.RecipeMatcher;
+import be.razerstorm.customcrafting.objects.RecipeNameIndex;
+import be.razerstorm.customcrafting.objects.RecipeRegistry;
+import be.razerstorm.customcrafting.storage.ConfigRecipeStorage;
+import be.razerstorm.customcrafting.storage.DataVersionUpgrader;
+import be.razerstorm.customcrafting.storage.FileRecipeStorage;
+import be.razerstorm.customcrafting.storage.RecipePersister;
+import be.razerstorm.customcrafting.storage.RecipeSerializer;
+import be.razerstorm.customcrafting.storage.RecipeSnapshotCache;
+import be.razerstorm.customcrafting.storage.RecipeStorage;
+import be.razerstorm.customcrafting.utils.ConflictDetector;
+import lombok.Getter;
+import org.bukkit.Keyed;
 import org.bukkit.NamespacedKey;
 import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.inventory.FurnaceRecipe;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.RecipeChoice;
-import org.bukkit.inventory.ShapedRecipe;
+import org.bukkit.inventory.Recipe;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.stream.IntStream;
 
 public class RecipeManager {
 
     private static RecipeManager instance;
     private final CustomCrafting plugin = CustomCrafting.getInstance();
 
-    public void loadRecipes() {
-        FileConfiguration config = plugin.getConfig();
-
-        // Удаляем старые рецепты плагина перед загрузкой новых
-        clearPluginRecipes();
-
+    private final ConfigRecipeStorage configStorage = new ConfigRecipeStorage(plugin);
+    private final FileRecipeStorage fileStorage = new FileRecipeStorage(plugin);
+    private final RecipePersister persister = new RecipePersister(plugin, configStorage);
+    private final RecipeSnapshotCache snapshotCache = new RecipeSnapshotCache(plugin);
+    private final DataVersionUpgrader dataVersionUpgrader = new DataVersionUpgrader(plugin);
+    private final RecipeRegistrar registrar = new RecipeRegistrar(plugin, this::toServerRecipe);
+    private final ForkJoinPool workers = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final String namespace = plugin.getName().toLowerCase(Locale.ROOT);
+
+    // Все запросы идут сюда, а не в конфиг
+    private volatile RecipeRegistry registry = RecipeRegistry.EMPTY;
+    private boolean recipesLoaded;
+    // Правки отклоняются от начала перезагрузки, пока новые настройки и хранилище не начнут использоваться
+    private volatile @Getter boolean reloading;
+    // С матчером сервер сравнивает только материалы, точные предметы проверяет RecipeMatcher
+    private @Getter boolean matcherEnabled;
+    private RecipeMatcher matcher = RecipeMatcher.EMPTY;
+    private RecipeRegistry matcherRegistry = RecipeRegistry.EMPTY;
+
+    public CompletableFuture<RecipeDiff> loadRecipes() {
         long initializeTime = System.currentTimeMillis();
-        AtomicInteger recipesLoaded = new AtomicInteger();
-
-        Objects.requireNonNull(config.getConfigurationSection("recipes")).getKeys(false).forEach(recipeName -> {
-            plugin.getLogger().info("Loading recipe " + recipeName);
-            String basePath = "recipes." + recipeName;
-            
-            if (config.get(basePath) == null ||
-                    config.get(basePath + ".result") == null ||
-                    config.get(basePath + ".type") == null) {
-                plugin.getLogger().warning("Recipe " + recipeName + " is invalid!");
-                return;
-            }
+        RecipeRegistry snapshot = registry;
+        reloading = true;
+
+        // Фаза 1: чтение конфига, разбор рецептов и сравнение с текущим реестром в пуле потоков.
+        // Фаза 2: в главном потоке трогаем только добавленные, изменённые и удалённые рецепты.
+        // Задачи планировщика запускаются только после ServerLoadEvent, так что регистрация не мешает загрузке сервера.
+
+        // Несохранённые правки сначала попадают на диск, иначе перечитанный конфиг их потеряет
+        // Сброс кэша хранилища должен закончиться до чтения, иначе он выбросит только что прочитанный документ
+        // Ошибка записи уже в логе и не должна срывать перезагрузку
+        CompletableFuture<Void> flushed = CompletableFuture.allOf(persister.flush().exceptionally(throwable -> null), persister.invalidate());
+
+        return flushed.thenApplyAsync(ignored -> {
+                    // config.yml разбирается один раз: из него берутся и настройки, и рецепты
+                    // Настройки и хранилище подменяются только в главном потоке, здесь они локальные
+                    long configFingerprint = configStorage.fingerprint();
+                    FileConfiguration settings = plugin.readSettings(configStorage.reload());
+                    RecipeStorage storage = openStorage(settings);
+                    // Отпечаток снимается до чтения: правка во время разбора делает снимок устаревшим, а не наоборот
+                    long fingerprint = storage == configStorage ? configFingerprint : storage.fingerprint();
+
+                    // При холодном старте пробуем бинарный снимок вместо разбора YAML
+                    Map<String, CustomRecipe> loaded = snapshot.isEmpty() ? snapshotCache.read(storage, fingerprint) : null;
+                    Map<String, Integer> outdated = null;
+                    if (loaded != null) {
+                        loaded.keySet().forEach(storage::markLoaded);
+                    } else {
+                        if (dataVersionUpgrader.isCheckNeeded()) {
+                            outdated = findOutdatedItems(storage);
+                        }
+                        loaded = parseRecipes(storage, snapshot.asMap());
+                        Map<String, CustomRecipe> parsed = loaded;
+                        workers.execute(() -> snapshotCache.write(storage, fingerprint, parsed));
+                    }
+                    IngredientPool.Stats ingredients = IngredientPool.getInstance().retain(loaded.values());
+                    if (ingredients.getTotal() > 0) {
+                        plugin.getLogger().info("Sharing " + ingredients.getUnique() + " unique items between " + ingredients.getTotal()
+                                + " recipe ingredients (~" + ingredients.getBytesSaved() / 1024 + " KB saved)");
+                    }
+                    // Индексы реестра строятся здесь же, а не в главном потоке
+                    return new LoadResult(settings, storage, fingerprint, RecipeRegistry.of(loaded), RecipeDiff.compute(snapshot.asMap(), loaded), outdated,
+                            settings.getBoolean("crafting-matcher"));
+                }, workers)
+                .thenApplyAsync(result -> {
+                    plugin.setSettings(result.settings);
+                    persister.setStorage(result.storage, result.fingerprint);
+                    reloading = false;
+
+                    Map<String, CustomRecipe> loaded = result.registry.asMap();
+                    // Реестр мог измениться, пока шёл разбор
+                    RecipeDiff diff = registry == snapshot ? result.diff : RecipeDiff.compute(registry.asMap(), loaded);
+
+                    if (!recipesLoaded) {
+                        removeLeftoverRecipes();
+                    }
+                    if (result.matcherEnabled != matcherEnabled) {
+                        // Все рецепты регистрируются заново с другим типом ингредиентов
+                        registry.getNames().forEach(registrar::remove);
+                        matcherEnabled = result.matcherEnabled;
+                        loaded.values().forEach(registrar::add);
+                    } else {
+                        diff.getRemoved().forEach(registrar::remove);
+                        diff.getChanged().forEach(registrar::replace);
+                        diff.getAdded().forEach(registrar::add);
+                    }
+                    registry = result.registry;
+                    recipesLoaded = true;
 
-            RecipeType type = RecipeType.valueOf(config.getString(basePath + ".type"));
-            ItemStack output = (ItemStack) config.get(basePath + ".result");
+                    plugin.getLogger().info("Loaded " + loaded.size() + " recipes in " + (System.currentTimeMillis() - initializeTime) + "ms! ("
+                            + diff.getAdded().size() + " added, " + diff.getChanged().size() + " changed, " + diff.getRemoved().size() + " removed)");
 
-            switch (type) {
-                case CRAFTING: {
-                    if (config.get(basePath + ".ingredients") == null ||
-                            config.get(basePath + ".shape") == null) {
-                        plugin.getLogger().warning("Recipe " + recipeName + " is invalid!");
-                        return;
+                    if (result.outdated != null) {
+                        upgradeOutdatedItems(loaded, result.outdated);
                     }
-
-                    String[] shape = config.getStringList(basePath + ".shape").toArray(new String[0]);
-                    HashMap<Character, ItemStack> ingredients = new HashMap<>();
-
-                    config.getConfigurationSection(basePath + ".ingredients").getKeys(false).forEach(ingredientKey -> {
-                        ingredients.put(ingredientKey.charAt(0), (ItemStack) config.get(basePath + ".ingredients." + ingredientKey));
-                    });
-
-                    pushToServerRecipes(output, ingredients, new NamespacedKey(plugin, recipeName), shape);
-                    break;
-                }
-                case FURNACE: {
-                    if (config.get(basePath + ".ingredient") == null ||
-                            config.get(basePath + ".experience") == null ||
-                            config.get(basePath + ".cookingTime") == null) {
-                        plugin.getLogger().warning("Recipe " + recipeName + " is invalid!");
-                        return;
+                    if (plugin.getConfig().getBoolean("check-conflicts", true)) {
+                        findConflicts().thenAccept(this::logConflicts);
                     }
+                    return diff;
+                }, task -> plugin.getServer().getScheduler().runTask(plugin, task))
+                // Регистрация на сервере растянута на несколько тиков, перезагрузка завершена только после неё
+                .thenCompose(diff -> registrar.whenSettled().thenApply(ignored -> diff))
+                .thenApply(diff -> {
+                    PermissionManager.getInstance().invalidateAll();
+                    DiscoveryManager.getInstance().reload();
+                    return diff;
+                })
+                .exceptionally(throwable -> {
+                    reloading = false;
+                    plugin.getLogger().log(Level.SEVERE, "Could not load recipes", throwable);
+                    return null;
+                });
+    }
 
-                    ItemStack ingredient = (ItemStack) config.get(basePath + ".ingredient");
-                    int experience = config.getInt(basePath + ".experience");
-                    int cookingTime = config.getInt(basePath + ".cookingTime");
-
-                    pushToServerRecipes(output, ingredient, new NamespacedKey(plugin, recipeName), experience, cookingTime);
-                    break;
-                }
-            }
-            recipesLoaded.getAndIncrement();
+    // Сравнивает рецепты друг с другом и с рецептами сервера, вызывать в главном потоке, там собираются рецепты сервера
+    public CompletableFuture<List<RecipeConflict>> findConflicts() {
+        RecipeRegistry snapshot = registry;
+        ConflictDetector detector = ConflictDetector.ofServerRecipes(namespace);
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.currentTimeMillis();
+            List<RecipeConflict> conflicts = detector.detect(snapshot.getRecipes());
+            plugin.getLogger().fine("Checked " + snapshot.size() + " recipes for conflicts in " + (System.currentTimeMillis() - start) + "ms");
+            return conflicts;
+        }, workers).whenComplete((conflicts, throwable) -> {
+            if (throwable != null) plugin.getLogger().log(Level.SEVERE, "Could not check recipes for conflicts", throwable);
         });
+    }
 
-        plugin.getLogger().info("Loaded " + recipesLoaded.get() + " recipes in " + (System.currentTimeMillis() - initializeTime) + "ms!");
+    private void logConflicts(List<RecipeConflict> conflicts) {
+        if (conflicts.isEmpty()) return;
+
+        conflicts.stream().limit(20).forEach(conflict ->
+                plugin.getLogger().warning("Recipe " + conflict.getRecipe() + " overlaps with " + (conflict.isCustom() ? "recipe " : "") + conflict.getOther() + ", only one of them can be crafted"));
+        if (conflicts.size() > 20) {
+            plugin.getLogger().warning("... and " + (conflicts.size() - 20) + " more, use /cc conflicts to list them all");
+        }
     }
 
-    public void addRecipe(String recipeName, ItemStack output, HashMap<Character, ItemStack> ingredients, String... shape) {
-        FileConfiguration config = plugin.getConfig();
-        String basePath = "recipes." + recipeName;
+    private RecipeStorage openStorage(FileConfiguration settings) {
+        if (StorageType.fromString(settings.getString("storage")) != StorageType.FILES) {
+            return configStorage;
+        }
 
-        config.set(basePath + ".type", RecipeType.CRAFTING.name());
-        config.set(basePath + ".result", output);
-        config.set(basePath + ".shape", shape);
+        // Переносим рецепты из config.yml в отдельные файлы
+        List<String> recipeNames = configStorage.loadIndex();
+        if (!recipeNames.isEmpty()) {
+            Map<String, CustomRecipe> migrated = new LinkedHashMap<>();
+            Map<String, CustomRecipe> removed = new HashMap<>();
+
+            recipeNames.forEach(recipeName -> {
+                CustomRecipe recipe = RecipeSerializer.read(recipeName, configStorage.loadRecipe(recipeName));
+                if (recipe == null) return;
+                migrated.put(recipeName, recipe);
+                removed.put(recipeName, null);
+            });
+
+            try {
+                fileStorage.write(migrated);
+                configStorage.write(removed);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
 
-        ingredients.forEach((identifier, ingredient) -> 
-            config.set(basePath + ".ingredients." + identifier, ingredient)
-        );
+            plugin.getLogger().info("Migrated " + migrated.size() + " recipes from config.yml to the recipes folder");
+        }
+        return fileStorage;
+    }
 
-        saveAndReload();
-        pushToServerRecipes(output, ingredients, new NamespacedKey(plugin, recipeName), shape);
+    private Map<String, Integer> findOutdatedItems(RecipeStorage storage) {
+        try {
+            return storage.countOutdatedItems(DataVersionUpgrader.getDataVersion());
+        } catch (IOException | UncheckedIOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not check the data version of stored items", e);
+            return null;
+        }
     }
 
-    public void addRecipe(String recipeName, ItemStack output, ItemStack ingredient, int experience, int cookingTime) {
-        FileConfiguration config = plugin.getConfig();
-        String basePath = "recipes." + recipeName;
+    private void upgradeOutdatedItems(Map<String, CustomRecipe> loaded, Map<String, Integer> outdated) {
+        int items = 0;
+        int upgraded = 0;
+        // Невалидные рецепты не перезаписать, их предметы остаются старыми и проверка повторится при следующей загрузке
+        boolean complete = true;
+        for (Map.Entry<String, Integer> entry : outdated.entrySet()) {
+            CustomRecipe recipe = loaded.get(entry.getKey());
+            if (recipe == null) {
+                complete = false;
+                continue;
+            }
 
-        config.set(basePath + ".type", RecipeType.FURNACE.name());
-        config.set(basePath + ".result", output);
-        config.set(basePath + ".ingredient", ingredient);
-        config.set(basePath + ".experience", experience);
-        config.set(basePath + ".cookingTime", cookingTime);
+            // Предметы уже обновлены при загрузке, осталось записать их в новом формате
+            persister.save(recipe);
+            items += entry.getValue();
+            upgraded++;
+        }
 
-        saveAndReload();
-        pushToServerRecipes(output, ingredient, new NamespacedKey(plugin, recipeName), experience, cookingTime);
+        if (upgraded > 0) {
+            plugin.getLogger().info("Upgraded " + items + " items in " + upgraded + " recipes to data version " + DataVersionUpgrader.getDataVersion());
+        }
+        CompletableFuture<Void> saved = persister.flush();
+        if (complete) {
+            saved.thenRun(dataVersionUpgrader::markChecked);
+        } else {
+            plugin.getLogger().warning("Some recipes with outdated items could not be loaded, their items are upgraded again on every load");
+        }
     }
 
-    public void deleteRecipe(String recipeName) {
-        FileConfiguration config = plugin.getConfig();
+    private Map<String, CustomRecipe> parseRecipes(RecipeStorage storage, Map<String, CustomRecipe> current) {
+        List<String> recipeNames = storage.loadIndex();
+        CustomRecipe[] parsed = new CustomRecipe[recipeNames.size()];
 
-        config.set("recipes." + recipeName, null);
-        saveAndReload();
+        IntStream.range(0, parsed.length).parallel().forEach(i -> {
+            String recipeName = recipeNames.get(i);
+            CustomRecipe existing = current.get(recipeName);
+
+            // Неизменённые рецепты не читаем повторно
+            parsed[i] = existing != null && !storage.hasChanged(recipeName)
+                    ? existing
+                    : RecipeSerializer.read(recipeName, storage.loadRecipe(recipeName));
+        });
 
-        plugin.getServer().removeRecipe(new NamespacedKey(plugin, recipeName));
+        Map<String, CustomRecipe> loaded = new LinkedHashMap<>();
+        for (int i = 0; i < parsed.length; i++) {
+            if (parsed[i] == null) {
+                plugin.getLogger().warning("Recipe " + recipeNames.get(i) + " is invalid!");
+                continue;
+            }
+            loaded.put(recipeNames.get(i), parsed[i]);
+        }
+        return loaded;
     }
 
-    public void editRecipe(String recipeName, ItemStack output, HashMap<Character, ItemStack> ingredients, String... shape) {
-        FileConfiguration config = plugin.getConfig();
-        String basePath = "recipes." + recipeName;
+    public void addRecipe(String recipeName, ItemStack output, HashMap<Character, ItemStack> ingredients, String... shape) {
+        addRecipe(CustomRecipe.crafting(recipeName, output, ingredients, shape));
+    }
 
-        config.set(basePath, null);
-        config.set(basePath + ".type", RecipeType.CRAFTING.name());
-        config.set(basePath + ".result", output);
-        config.set(basePath + ".shape", shape);
+    public void addRecipe(String recipeName, ItemStack output, ItemStack ingredient, int experience, int cookingTime) {
+        addRecipe(CustomRecipe.furnace(recipeName, output, ingredient, experience, cookingTime));
+    }
 
-        ingredients.forEach((identifier, ingredient) -> 
-            config.set(basePath + ".ingredients." + identifier, ingredient)
-        );
+    public void addRecipe(CustomRecipe recipe) {
+        putRecipe(recipe);
+        persister.save(recipe);
+        registrar.add(recipe);
+        PermissionManager.getInstance().recipeAdded(recipe.getName());
+        DiscoveryManager.getInstance().recipeAdded(recipe.getName());
+    }
 
-        saveAndReload();
+    public void deleteRecipe(String recipeName) {
+        removeRecipe(recipeName);
+        persister.delete(recipeName);
+        registrar.remove(recipeName);
+        PermissionManager.getInstance().recipeRemoved(recipeName);
+        DiscoveryManager.getInstance().forget(recipeName);
+    }
 
-        NamespacedKey recipeKey = new NamespacedKey(plugin, recipeName);
-        plugin.getServer().removeRecipe(recipeKey);
-        pushToServerRecipes(output, ingredients, recipeKey, shape);
+    public void editRecipe(String recipeName, ItemStack output, HashMap<Character, ItemStack> ingredients, String... shape) {
+        CustomRecipe existing = registry.get(recipeName);
+        Map<Character, IngredientMatch> matches = existing == null ? Collections.emptyMap() : existing.matchesFor(ingredients);
+        editRecipe(CustomRecipe.crafting(recipeName, output, ingredients, matches, shape));
     }
 
     public void editRecipe(String recipeName, ItemStack output, ItemStack ingredient, int experience, int cookingTime) {
-        FileConfiguration config = plugin.getConfig();
-        String basePath = "recipes." + recipeName;
-
-        config.set(basePath, null);
-        config.set(basePath + ".type", RecipeType.FURNACE.name());
-        config.set(basePath + ".result", output);
-        config.set(basePath + ".ingredient", ingredient);
-        config.set(basePath + ".experience", experience);
-        config.set(basePath + ".cookingTime", cookingTime);
-
-        saveAndReload();
+        editRecipe(CustomRecipe.furnace(recipeName, output, ingredient, experience, cookingTime));
+    }
 
-        NamespacedKey recipeKey = new NamespacedKey(plugin, recipeName);
-        plugin.getServer().removeRecipe(recipeKey);
-        pushToServerRecipes(output, ingredient, recipeKey, experience, cookingTime);
+    public void editRecipe(CustomRecipe recipe) {
+        putRecipe(recipe);
+        persister.save(recipe);
+        registrar.replace(recipe);
     }
 
     public int getExperience(String recipeName) {
-        return plugin.getConfig().getInt("recipes." + recipeName + ".experience");
+        CustomRecipe recipe = registry.get(recipeName);
+        return recipe == null ? 0 : recipe.getExperience();
     }
 
     public int getCookingTime(String recipeName) {
-        return plugin.getConfig().getInt("recipes." + recipeName + ".cookingTime");
+        CustomRecipe recipe = registry.get(recipeName);
+        return recipe == null ? 0 : recipe.getCookingTime();
     }
 
     public ItemStack getOutput(String recipeName) {
-        return (ItemStack) plugin.getConfig().get("recipes." + recipeName + ".result");
+        CustomRecipe recipe = registry.get(recipeName);
+        return recipe == null ? null : recipe.getOutput();
     }
 
     public ItemStack getIngredient(String recipeName) {
-        return (ItemStack) plugin.getConfig().get("recipes." + recipeName + ".ingredient");
+        CustomRecipe recipe = registry.get(recipeName);
+        return recipe == null ? null : recipe.getIngredient();
+    }
+
+    private Recipe toServerRecipe(CustomRecipe recipe) {
+        NamespacedKey recipeKey = new NamespacedKey(plugin, recipe.getName());
+        return RecipeCodecs.get(recipe.getType()).toServerRecipe(recipe, recipeKey, !matcherEnabled);
     }
 
-    private void pushToServerRecipes(ItemStack output, HashMap<Character, ItemStack> ingredients, NamespacedKey recipeKey, String... shape) {
-        ShapedRecipe recipe = new ShapedRecipe(recipeKey, output);
-        recipe.shape(shape);
+    // Зарегистрированы ли все изменения на сервере, до этого наши рецепты не крафтятся
+    public boolean isRegistrationSettled() {
+        return registrar.isSettled();
+    }
 
-        ingredients.forEach((identifier, ingredient) -> 
-            recipe.setIngredient(identifier, new RecipeChoice.ExactChoice(ingredient))
-        );
+    public CompletableFuture<Void> whenRegistrationSettled() {
+        return registrar.whenSettled();
+    }
 
-        plugin.getServer().addRecipe(recipe);
+    public Set<String> getRecipes() {
+        return registry.getNames();
     }
 
-    private void pushToServerRecipes(ItemStack output, ItemStack ingredient, NamespacedKey recipeKey, int experience, int cookingTime) {
-        plugin.getServer().addRecipe(
-            new FurnaceRecipe(recipeKey, output, new RecipeChoice.ExactChoice(ingredient), experience, cookingTime)
-        );
+    public RecipeNameIndex getNameIndex() {
+        return registry.getNameIndex();
     }
 
-    public ArrayList<String> getRecipes() {
-        FileConfiguration config = plugin.getConfig();
-        return new ArrayList<>(config.getConfigurationSection("recipes").getKeys(false));
+    // Можно вызывать из любого потока, читает текущий снимок реестра
+    public List<String> completeRecipeNames(String prefix, int limit) {
+        return registry.getNameIndex().complete(prefix, limit);
     }
 
-    public RecipeInfo getRecipeInfo(String recipeName) {
-        FileConfiguration config = plugin.getConfig();
-        String basePath = "recipes." + recipeName;
+    // Как completeRecipeNames(String, int), но без имён, отклонённых фильтром
+    public List<String> completeRecipeNames(String prefix, int limit, Predicate<String> filter) {
+        return registry.getNameIndex().complete(prefix, limit, filter);
+    }
 
-        ItemStack output = (ItemStack) config.get(basePath + ".result");
-        String[] shape = config.getStringList(basePath + ".shape").toArray(new String[0]);
-        HashMap<Character, ItemStack> ingredients = new HashMap<>();
+    public RecipeRegistry getRegistry() {
+        return registry;
+    }
+
+    // Строится при первом использовании после каждого изменения, только главный поток
+    public RecipeMatcher getMatcher() {
+        RecipeRegistry current = registry;
+        if (current != matcherRegistry) {
+            matcher = RecipeMatcher.of(current.getRecipes());
+            matcherRegistry = current;
+        }
+        return matcher;
+    }
+
+    // После /reload на сервере остаются рецепты прежнего экземпляра плагина, повторное добавление ключа бросает ошибку.
+    // Удаление ставится в очередь регистратора до добавлений: для оставшихся рецептов оно превращается в замену.
+    private void removeLeftoverRecipes() {
+        Iterator<Recipe> iterator = plugin.getServer().recipeIterator();
+        while (iterator.hasNext()) {
+            Recipe recipe = iterator.next();
+            if (isOwnRecipe(recipe)) registrar.remove(((Keyed) recipe).getKey().getKey());
+        }
+    }
+
+    public boolean isOwnRecipe(Recipe recipe) {
+        return recipe instanceof Keyed && ((Keyed) recipe).getKey().getNamespace().equals(namespace);
+    }
 
-        config.getConfigurationSection(basePath + ".ingredients").getKeys(false).forEach(ingredientKey -> 
-            ingredients.put(ingredientKey.charAt(0), (ItemStack) config.get(basePath + ".ingredients." + ingredientKey))
-        );
+    public CustomRecipe getRecipe(String recipeName) {
+        return registry.get(recipeName);
+    }
 
-        return new RecipeInfo(recipeName, output, ingredients, shape);
+    public RecipeInfo getRecipeInfo(String recipeName) {
+        CustomRecipe recipe = registry.get(recipeName);
+        return recipe == null ? null : recipe.toRecipeInfo();
     }
 
     public boolean recipeExists(String recipe) {
-        return plugin.getConfig().get("recipes." + recipe) != null;
+        return registry.contains(recipe);
     }
 
     public RecipeType getType(String recipe) {
-        return RecipeType.valueOf(plugin.getConfig().getString("recipes." + recipe + ".type"));
+        CustomRecipe customRecipe = registry.get(recipe);
+        return customRecipe == null ? null : customRecipe.getType();
+    }
+
+    private void putRecipe(CustomRecipe recipe) {
+        registry = registry.with(recipe);
     }
 
-    private void saveAndReload() {
-        plugin.saveConfig();
-        plugin.reloadConfig();
+    private void removeRecipe(String recipeName) {
+        registry = registry.without(recipeName);
     }
 
-    private void clearPluginRecipes() {
-        FileConfiguration config = plugin.getConfig();
-        if (config.getConfigurationSection("recipes") == null) {
-            return;
+    public void shutdown() {
+        registrar.flush();
+        persister.shutdown();
+        // Без отпечатка кто-то изменил файлы помимо нас, снимок был бы неверным
+        Long fingerprint = persister.getFingerprint();
+        if (recipesLoaded && fingerprint != null) {
+            snapshotCache.write(persister.getStorage(), fingerprint, registry.asMap());
         }
+        workers.shutdownNow();
+    }
 
-        config.getConfigurationSection("recipes").getKeys(false).forEach(recipeName -> {
-            NamespacedKey key = new NamespacedKey(plugin, recipeName);
-            plugin.getServer().removeRecipe(key);
-        });
+    private static class LoadResult {
+        // Публикуются в главном потоке вместе с рецептами
+        private final FileConfiguration settings;
+        private final RecipeStorage storage;
+        private final long fingerprint;
+        private final RecipeRegistry registry;
+        private final RecipeDiff diff;
+        // Имя рецепта -> число предметов со старой версией данных, null, если проверять нечего
+        private final Map<String, Integer> outdated;
+        private final boolean matcherEnabled;
+
+        private LoadResult(FileConfiguration settings, RecipeStorage storage, long fingerprint, RecipeRegistry registry, RecipeDiff diff,
+                           Map<String, Integer> outdated, boolean matcherEnabled) {
+            this.settings = settings;
+            this.storage = storage;
+            this.fingerprint = fingerprint;
+            this.registry = registry;
+            this.diff = diff;
+            this.outdated = outdated;
+            this.matcherEnabled = matcherEnabled;
+        }
     }
 
     public static RecipeManager getInstance() {
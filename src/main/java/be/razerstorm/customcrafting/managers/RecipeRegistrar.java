@@ -0,0 +1,165 @@
+package be.razerstorm.customcrafting.managers;
+
+import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.utils.ServerRecipes;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+// Растягивает регистрацию рецептов на сервере на несколько тиков с бюджетом времени на тик, только главный поток
+public class RecipeRegistrar {
+
+    private static final long PROGRESS_INTERVAL_TICKS = 40L;
+
+    private final CustomCrafting plugin;
+    // Серверный рецепт строится при регистрации, чтобы рецепт из очереди использовал текущие настройки
+    private final Function<CustomRecipe, Recipe> serverRecipes;
+    private final ServerRecipes server;
+
+    // Имя рецепта -> ожидающая операция, имя попадает в очередь один раз, сколько бы раз оно ни менялось
+    private final Map<String, Operation> pending = new LinkedHashMap<>();
+    private CompletableFuture<Void> settled = CompletableFuture.completedFuture(null);
+    private BukkitTask drainTask;
+
+    // Нужно ли переотправить книги рецептов в конце пачки
+    private boolean changed;
+    private int done;
+    private int ticks;
+    private long startTime;
+
+    public RecipeRegistrar(CustomCrafting plugin, Function<CustomRecipe, Recipe> serverRecipes) {
+        this.plugin = plugin;
+        this.serverRecipes = serverRecipes;
+        this.server = ServerRecipes.of(plugin.getServer());
+        if (!server.isBatched()) {
+            plugin.getLogger().fine("Batched recipe updates are not supported, every recipe change is sent to the players");
+        }
+    }
+
+    public void add(CustomRecipe recipe) {
+        operation(recipe.getName()).recipe = recipe;
+    }
+
+    // Удаляет текущий серверный рецепт перед добавлением нового
+    public void replace(CustomRecipe recipe) {
+        Operation operation = operation(recipe.getName());
+        operation.remove = true;
+        operation.recipe = recipe;
+    }
+
+    public void remove(String recipeName) {
+        Operation operation = operation(recipeName);
+        operation.remove = true;
+        operation.recipe = null;
+    }
+
+    // Совпадают ли рецепты сервера с реестром, до этого наши рецепты не крафтятся
+    public boolean isSettled() {
+        return pending.isEmpty();
+    }
+
+    // Завершается, когда зарегистрировано всё, что уже в очереди
+    public CompletableFuture<Void> whenSettled() {
+        return settled;
+    }
+
+    // Регистрирует всё оставшееся сразу, при выключении
+    public void flush() {
+        drain(Long.MAX_VALUE);
+    }
+
+    private Operation operation(String recipeName) {
+        Operation operation = pending.get(recipeName);
+        if (operation == null) {
+            operation = new Operation();
+            pending.put(recipeName, operation);
+            scheduleDrain();
+        }
+        return operation;
+    }
+
+    private void scheduleDrain() {
+        if (drainTask != null) return;
+
+        if (settled.isDone()) settled = new CompletableFuture<>();
+        done = 0;
+        ticks = 0;
+        startTime = System.currentTimeMillis();
+        drainTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    private void tick() {
+        ticks++;
+        // 0 или меньше регистрирует всё за один тик, как раньше
+        long budget = plugin.getConfig().getLong("registration-budget-ms", 5L);
+        drain(budget > 0 ? System.nanoTime() + budget * 1_000_000L : Long.MAX_VALUE);
+
+        if (!pending.isEmpty() && ticks % PROGRESS_INTERVAL_TICKS == 0) {
+            plugin.getLogger().info("Registering recipes... " + done + "/" + (done + pending.size()));
+        }
+    }
+
+    // Хотя бы одна операция за вызов, чтобы маленький бюджет тоже продвигался
+    private void drain(long deadline) {
+        Iterator<Map.Entry<String, Operation>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Operation> entry = iterator.next();
+            iterator.remove();
+            apply(entry.getKey(), entry.getValue());
+            done++;
+
+            if (deadline != Long.MAX_VALUE && System.nanoTime() >= deadline) break;
+        }
+
+        if (pending.isEmpty()) finish();
+    }
+
+    private void apply(String recipeName, Operation operation) {
+        changed = true;
+        try {
+            if (operation.remove) {
+                server.remove(new NamespacedKey(plugin, recipeName));
+            }
+            if (operation.recipe != null) {
+                server.add(serverRecipes.apply(operation.recipe));
+            }
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not register recipe " + recipeName, e);
+        }
+    }
+
+    private void finish() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+
+        if (changed) {
+            changed = false;
+            try {
+                server.update();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not send the recipe changes to the players", e);
+            }
+        }
+
+        if (ticks > 1) {
+            plugin.getLogger().info("Registered " + done + " recipe changes over " + ticks + " ticks in "
+                    + (System.currentTimeMillis() - startTime) + "ms");
+        }
+        settled.complete(null);
+    }
+
+    private static class Operation {
+        private boolean remove;
+        private CustomRecipe recipe;
+    }
+}
@@ -0,0 +1,148 @@
+package be.razerstorm.customcrafting.objects;
+
+import be.razerstorm.customcrafting.enums.MatchMode;
+import be.razerstorm.customcrafting.enums.RecipeType;
+import lombok.Getter;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+// Неизменяемый скомпилированный рецепт, предметы общие, перед изменением их нужно клонировать
+public final class CustomRecipe {
+    private final @Getter String name;
+    private final @Getter RecipeType type;
+    private final @Getter ItemStack output;
+    private final String[] shape;
+    private final @Getter Map<Character, ItemStack> ingredients;
+    private final @Getter ItemStack ingredient;
+    private final @Getter int experience;
+    private final @Getter int cookingTime;
+    // Только ингредиенты, которые сравниваются не точно
+    private final @Getter Map<Character, IngredientMatch> matches;
+    private final @Getter int contentHash;
+    private final Map<Character, Predicate<ItemStack>> tests = new HashMap<>();
+    // false, если какой-то ингредиент проверяет только плагин, сервер тогда сравнивает для него материал
+    private final @Getter boolean serverMatched;
+
+    private CustomRecipe(String name, RecipeType type, ItemStack output, String[] shape, Map<Character, ItemStack> ingredients,
+                         Map<Character, IngredientMatch> matches, ItemStack ingredient, int experience, int cookingTime) {
+        this.name = name;
+        this.type = type;
+        this.output = output;
+        this.shape = shape;
+        this.ingredients = ingredients;
+        this.matches = matches;
+        this.ingredient = ingredient;
+        this.experience = experience;
+        this.cookingTime = cookingTime;
+        this.contentHash = Objects.hash(type, output, Arrays.hashCode(shape), ingredients, matches, ingredient, experience, cookingTime);
+
+        boolean serverMatched = true;
+        for (Map.Entry<Character, ItemStack> entry : ingredients.entrySet()) {
+            IngredientMatch match = getMatch(entry.getKey());
+            tests.put(entry.getKey(), match.compile(entry.getValue()));
+            serverMatched &= match.getMode().isServerChecked();
+        }
+        this.serverMatched = serverMatched;
+    }
+
+    public static CustomRecipe crafting(String name, ItemStack output, Map<Character, ItemStack> ingredients, String... shape) {
+        return crafting(name, output, ingredients, Collections.emptyMap(), shape);
+    }
+
+    public static CustomRecipe crafting(String name, ItemStack output, Map<Character, ItemStack> ingredients,
+                                        Map<Character, IngredientMatch> matches, String... shape) {
+        return grid(RecipeType.CRAFTING, name, output, ingredients, matches, shape);
+    }
+
+    // Форма хранит только раскладку в меню, каждый символ в ней - один ингредиент
+    public static CustomRecipe shapeless(String name, ItemStack output, Map<Character, ItemStack> ingredients,
+                                         Map<Character, IngredientMatch> matches, String... shape) {
+        return grid(RecipeType.SHAPELESS, name, output, ingredients, matches, shape);
+    }
+
+    public static CustomRecipe grid(RecipeType type, String name, ItemStack output, Map<Character, ItemStack> ingredients,
+                                    Map<Character, IngredientMatch> matches, String... shape) {
+        Map<Character, ItemStack> copy = new HashMap<>();
+        IngredientPool pool = IngredientPool.getInstance();
+        ingredients.forEach((identifier, item) -> copy.put(identifier, pool.intern(item)));
+
+        Map<Character, IngredientMatch> matchCopy = new HashMap<>();
+        matches.forEach((identifier, match) -> {
+            if (match.getMode() != MatchMode.EXACT && copy.containsKey(identifier)) matchCopy.put(identifier, match);
+        });
+        return new CustomRecipe(name, type, output.clone(), shape.clone(), Collections.unmodifiableMap(copy),
+                Collections.unmodifiableMap(matchCopy), null, 0, 0);
+    }
+
+    public static CustomRecipe furnace(String name, ItemStack output, ItemStack ingredient, int experience, int cookingTime) {
+        return cooking(RecipeType.FURNACE, name, output, ingredient, experience, cookingTime);
+    }
+
+    public static CustomRecipe stonecutting(String name, ItemStack output, ItemStack ingredient) {
+        return cooking(RecipeType.STONECUTTING, name, output, ingredient, 0, 0);
+    }
+
+    // Любой рецепт с одним ингредиентом: печи, костёр и камнерез
+    public static CustomRecipe cooking(RecipeType type, String name, ItemStack output, ItemStack ingredient, int experience, int cookingTime) {
+        return new CustomRecipe(name, type, output.clone(), new String[0], Collections.emptyMap(), Collections.emptyMap(),
+                IngredientPool.getInstance().intern(ingredient), experience, cookingTime);
+    }
+
+    public String[] getShape() {
+        return shape.clone();
+    }
+
+    // Символ каждой занятой клетки формы построчно, ингредиент, использованный дважды, повторяется
+    public char[] getIdentifiers() {
+        StringBuilder identifiers = new StringBuilder(9);
+        for (String row : shape) {
+            for (int i = 0; i < row.length(); i++) {
+                if (ingredients.containsKey(row.charAt(i))) identifiers.append(row.charAt(i));
+            }
+        }
+        return identifiers.toString().toCharArray();
+    }
+
+    public IngredientMatch getMatch(char identifier) {
+        return matches.getOrDefault(identifier, IngredientMatch.EXACT);
+    }
+
+    // Проверяет предмет скомпилированным предикатом режима сравнения ингредиента
+    public boolean test(char identifier, ItemStack item) {
+        Predicate<ItemStack> test = tests.get(identifier);
+        return test != null && test.test(item);
+    }
+
+    // Переносит режимы сравнения в новую версию рецепта, символы в меню назначаются заново, поэтому ингредиенты ищутся по предмету
+    public Map<Character, IngredientMatch> matchesFor(Map<Character, ItemStack> newIngredients) {
+        Map<Character, IngredientMatch> result = new HashMap<>();
+        newIngredients.forEach((identifier, item) -> matches.forEach((oldIdentifier, match) -> {
+            if (ingredients.get(oldIdentifier).isSimilar(item)) result.put(identifier, match);
+        }));
+        return result;
+    }
+
+    public boolean sameContent(CustomRecipe other) {
+        return contentHash == other.contentHash
+                && type == other.type
+                && experience == other.experience
+                && cookingTime == other.cookingTime
+                && Arrays.equals(shape, other.shape)
+                && output.equals(other.output)
+                && ingredients.equals(other.ingredients)
+                && matches.equals(other.matches)
+                && Objects.equals(ingredient, other.ingredient);
+    }
+
+    public RecipeInfo toRecipeInfo() {
+        HashMap<Character, ItemStack> copy = new HashMap<>();
+        ingredients.forEach((identifier, item) -> copy.put(identifier, item.clone()));
+        return new RecipeInfo(name, output.clone(), copy, getShape());
+    }
+}
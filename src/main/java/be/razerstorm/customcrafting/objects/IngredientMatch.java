@@ -0,0 +1,138 @@
+package be.razerstorm.customcrafting.objects;
+
+import be.razerstorm.customcrafting.enums.MatchMode;
+import io.github.bananapuncher714.nbteditor.NBTEditor;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.RecipeChoice;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+// Как ингредиент сравнивается с предметом в сетке, компилируется в предикат один раз при загрузке
+public final class IngredientMatch {
+
+    public static final IngredientMatch EXACT = new IngredientMatch(MatchMode.EXACT, null, Collections.emptyList());
+
+    private final @Getter MatchMode mode;
+    // Тег предметов для TAG, например minecraft:planks
+    private final @Getter String tag;
+    // Пути NBT через точку для NBT_KEYS
+    private final @Getter List<String> keys;
+
+    private IngredientMatch(MatchMode mode, String tag, List<String> keys) {
+        this.mode = mode;
+        this.tag = tag;
+        this.keys = keys;
+    }
+
+    // null, если тег отсутствует или неизвестен, или не указаны ключи NBT
+    public static IngredientMatch of(MatchMode mode, String tag, List<String> keys) {
+        switch (mode) {
+            case EXACT:
+                return EXACT;
+            case TAG:
+                if (tag == null || resolveTag(tag) == null) return null;
+                return new IngredientMatch(mode, tag, Collections.emptyList());
+            case NBT_KEYS:
+                if (keys == null || keys.isEmpty()) return null;
+                return new IngredientMatch(mode, null, Collections.unmodifiableList(new ArrayList<>(keys)));
+            default:
+                return new IngredientMatch(mode, null, Collections.emptyList());
+        }
+    }
+
+    public Predicate<ItemStack> compile(ItemStack ingredient) {
+        Material material = ingredient.getType();
+
+        switch (mode) {
+            case MATERIAL:
+                return item -> item.getType() == material;
+            case TAG: {
+                Set<Material> materials = materials(ingredient);
+                if (materials.isEmpty()) return item -> false;
+                return item -> materials.contains(item.getType());
+            }
+            case CUSTOM_MODEL_DATA: {
+                Integer modelData = getCustomModelData(ingredient);
+                return item -> item.getType() == material && Objects.equals(modelData, getCustomModelData(item));
+            }
+            case NBT_KEYS: {
+                Object[][] paths = new Object[keys.size()][];
+                Object[] values = new Object[paths.length];
+                for (int i = 0; i < paths.length; i++) {
+                    paths[i] = keys.get(i).split("\\.");
+                    values[i] = NBTEditor.getValue(ingredient, paths[i]);
+                }
+                return item -> {
+                    if (item.getType() != material) return false;
+                    for (int i = 0; i < paths.length; i++) {
+                        if (!Objects.equals(values[i], NBTEditor.getValue(item, paths[i]))) return false;
+                    }
+                    return true;
+                };
+            }
+            default:
+                return ingredient::isSimilar;
+        }
+    }
+
+    // Все материалы подходящего предмета: значения тега для TAG, иначе материал самого ингредиента
+    public Set<Material> materials(ItemStack ingredient) {
+        if (mode != MatchMode.TAG) return EnumSet.of(ingredient.getType());
+
+        Tag<Material> itemTag = resolveTag(tag);
+        if (itemTag == null || itemTag.getValues().isEmpty()) return EnumSet.noneOf(Material.class);
+        return EnumSet.copyOf(itemTag.getValues());
+    }
+
+    // exact: проверяет ли сервер точный ингредиент, матчер регистрирует только материалы
+    public RecipeChoice toChoice(ItemStack ingredient, boolean exact) {
+        switch (mode) {
+            case EXACT:
+                return exact ? new RecipeChoice.ExactChoice(ingredient) : new RecipeChoice.MaterialChoice(ingredient.getType());
+            case TAG: {
+                Tag<Material> itemTag = resolveTag(tag);
+                if (itemTag != null) return new RecipeChoice.MaterialChoice(itemTag);
+                return new RecipeChoice.MaterialChoice(ingredient.getType());
+            }
+            default:
+                return new RecipeChoice.MaterialChoice(ingredient.getType());
+        }
+    }
+
+    private static Tag<Material> resolveTag(String tag) {
+        NamespacedKey key = NamespacedKey.fromString(tag.toLowerCase(Locale.ROOT));
+        return key == null ? null : Bukkit.getTag(Tag.REGISTRY_ITEMS, key, Material.class);
+    }
+
+    private static Integer getCustomModelData(ItemStack item) {
+        if (!item.hasItemMeta()) return null;
+        ItemMeta meta = item.getItemMeta();
+        return meta.hasCustomModelData() ? meta.getCustomModelData() : null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IngredientMatch)) return false;
+        IngredientMatch other = (IngredientMatch) o;
+        return mode == other.mode && Objects.equals(tag, other.tag) && keys.equals(other.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mode, tag, keys);
+    }
+}
@@ -0,0 +1,102 @@
+package be.razerstorm.customcrafting.objects;
+
+import be.razerstorm.customcrafting.utils.ItemFingerprint;
+import lombok.Getter;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Общие экземпляры ингредиентов для всех рецептов, STICK из тысячи рецептов хранится один раз
+public final class IngredientPool {
+
+    // Примерные размеры ItemStack и CraftMetaItem с его картами, только для статистики
+    private static final int ITEM_BYTES = 40;
+    private static final int META_BYTES = 400;
+
+    private static final IngredientPool INSTANCE = new IngredientPool();
+
+    // Отпечаток -> предметы пула, больше одного только при коллизии или другом количестве
+    private final ConcurrentHashMap<Integer, ItemStack[]> pool = new ConcurrentHashMap<>();
+
+    private IngredientPool() {
+    }
+
+    public static IngredientPool getInstance() {
+        return INSTANCE;
+    }
+
+    // Предмет из пула, равный данному, если такого нет, копия добавляется в пул
+    public ItemStack intern(ItemStack item) {
+        int fingerprint = ItemFingerprint.of(item);
+        ItemStack pooled = find(pool.get(fingerprint), item);
+        if (pooled != null) return pooled;
+
+        ItemStack copy = item.clone();
+        ItemStack[] result = new ItemStack[1];
+        pool.compute(fingerprint, (key, bucket) -> {
+            result[0] = find(bucket, copy);
+            if (result[0] != null) return bucket;
+
+            result[0] = copy;
+            if (bucket == null) return new ItemStack[]{copy};
+
+            ItemStack[] grown = new ItemStack[bucket.length + 1];
+            System.arraycopy(bucket, 0, grown, 0, bucket.length);
+            grown[bucket.length] = copy;
+            return grown;
+        });
+        return result[0];
+    }
+
+    // Убирает из пула предметы, которые больше не используются, и возвращает статистику
+    public Stats retain(Collection<CustomRecipe> recipes) {
+        Set<ItemStack> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        int total = 0;
+        long saved = 0;
+        for (CustomRecipe recipe : recipes) {
+            for (ItemStack ingredient : RecipeItemIndex.getInputs(recipe)) {
+                total++;
+                if (!used.add(ingredient)) saved += ingredient.hasItemMeta() ? ITEM_BYTES + META_BYTES : ITEM_BYTES;
+            }
+        }
+
+        for (Integer fingerprint : new ArrayList<>(pool.keySet())) {
+            pool.computeIfPresent(fingerprint, (key, bucket) -> {
+                List<ItemStack> kept = new ArrayList<>(bucket.length);
+                for (ItemStack item : bucket) {
+                    if (used.contains(item)) kept.add(item);
+                }
+                if (kept.isEmpty()) return null;
+                return kept.size() == bucket.length ? bucket : kept.toArray(new ItemStack[0]);
+            });
+        }
+        return new Stats(total, used.size(), saved);
+    }
+
+    private static ItemStack find(ItemStack[] bucket, ItemStack item) {
+        if (bucket == null) return null;
+        for (ItemStack pooled : bucket) {
+            if (pooled.equals(item)) return pooled;
+        }
+        return null;
+    }
+
+    @Getter
+    public static final class Stats {
+        private final int total;
+        private final int unique;
+        private final long bytesSaved;
+
+        private Stats(int total, int unique, long bytesSaved) {
+            this.total = total;
+            this.unique = unique;
+            this.bytesSaved = bytesSaved;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package be.razerstorm.customcrafting.objects;
+
+import org.bukkit.ChatColor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Сообщение, скомпилированное один раз из messages.yml: литералы с цветами и слоты {placeholder} между ними
+public final class MessageTemplate {
+
+    private static final String COLOR_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx";
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    // За literals[i] следует slots[i], после последнего литерала слота нет
+    private final String[] literals;
+    private final String[] slots;
+    private final String[] rawSlots;
+    // Рендерится один раз, если подставлять нечего
+    private final String constant;
+
+    private MessageTemplate(String[] literals, String[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        this.rawSlots = new String[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            rawSlots[i] = "{" + slots[i] + "}";
+        }
+        this.constant = slots.length == 0 ? literals[0] : null;
+    }
+
+    public static MessageTemplate compile(String message) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+
+        int start = 0;
+        int open = message.indexOf('{');
+        while (open != -1) {
+            int close = message.indexOf('}', open + 1);
+            if (close == -1) break;
+
+            String name = message.substring(open + 1, close);
+            if (isPlaceholderName(name)) {
+                literals.add(color(message.substring(start, open)));
+                slots.add(name);
+                start = close + 1;
+                open = message.indexOf('{', start);
+            } else {
+                open = message.indexOf('{', open + 1);
+            }
+        }
+        literals.add(color(message.substring(start)));
+
+        return new MessageTemplate(literals.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    public boolean hasPlaceholders() {
+        return constant == null;
+    }
+
+    public String render(Map<String, String> placeholders) {
+        if (constant != null) return constant;
+
+        StringBuilder builder = builder();
+        appendTo(builder, placeholders);
+        return builder.toString();
+    }
+
+    // Плейсхолдеры, которых нет в карте, остаются как написаны
+    public void appendTo(StringBuilder builder, Map<String, String> placeholders) {
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            String value = placeholders.get(slots[i]);
+            if (value == null) {
+                builder.append(rawSlots[i]);
+            } else {
+                appendColored(builder, value);
+            }
+        }
+        builder.append(literals[slots.length]);
+    }
+
+    // Общий StringBuilder текущего потока, очищенный
+    public static StringBuilder builder() {
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        return builder;
+    }
+
+    private static boolean isPlaceholderName(String name) {
+        if (name.isEmpty()) return false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != '_' && c != '.') return false;
+        }
+        return true;
+    }
+
+    private static String color(String literal) {
+        return ChatColor.translateAlternateColorCodes('&', literal);
+    }
+
+    // Значения раньше окрашивались вместе с сообщением, делаем так же без промежуточной строки
+    private static void appendColored(StringBuilder builder, String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '&' && i + 1 < length && COLOR_CODES.indexOf(value.charAt(i + 1)) > -1) {
+                builder.append(ChatColor.COLOR_CHAR).append(Character.toLowerCase(value.charAt(++i)));
+            } else {
+                builder.append(c);
+            }
+        }
+    }
+}
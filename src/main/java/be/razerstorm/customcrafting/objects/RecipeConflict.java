@@ -0,0 +1,17 @@
+package be.razerstorm.customcrafting.objects;
+
+import lombok.Getter;
+
+// Рецепт, сетка которого крафтит и другой рецепт, сервер всегда использует только один из них
+public final class RecipeConflict {
+    private final @Getter String recipe;
+    // Имя для наших рецептов, ключ с пространством имён для серверных
+    private final @Getter String other;
+    private final @Getter boolean custom;
+
+    public RecipeConflict(String recipe, String other, boolean custom) {
+        this.recipe = recipe;
+        this.other = other;
+        this.custom = custom;
+    }
+}
@@ -0,0 +1,36 @@
+package be.razerstorm.customcrafting.objects;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class RecipeDiff {
+    private final @Getter List<CustomRecipe> added = new ArrayList<>();
+    private final @Getter List<CustomRecipe> changed = new ArrayList<>();
+    private final @Getter List<String> removed = new ArrayList<>();
+
+    public static RecipeDiff compute(Map<String, CustomRecipe> current, Map<String, CustomRecipe> updated) {
+        RecipeDiff diff = new RecipeDiff();
+
+        updated.forEach((name, recipe) -> {
+            CustomRecipe existing = current.get(name);
+            if (existing == null) {
+                diff.added.add(recipe);
+            } else if (!existing.sameContent(recipe)) {
+                diff.changed.add(recipe);
+            }
+        });
+
+        current.keySet().forEach(name -> {
+            if (!updated.containsKey(name)) diff.removed.add(name);
+        });
+
+        return diff;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,53 @@
+package be.razerstorm.customcrafting.objects;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Номер для каждого имени рецепта, бит в битовых картах игроков. Номера не переиспользуются, потокобезопасно
+public final class RecipeIndices {
+
+    private static final RecipeIndices INSTANCE = new RecipeIndices();
+
+    private final Map<String, Integer> indices = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    private RecipeIndices() {
+    }
+
+    public static RecipeIndices getInstance() {
+        return INSTANCE;
+    }
+
+    // Номер рецепта, новый, если его ещё нет
+    public int indexOf(String recipeName) {
+        Integer index = indices.get(recipeName);
+        if (index != null) return index;
+
+        synchronized (names) {
+            return indices.computeIfAbsent(recipeName, name -> {
+                names.add(name);
+                return names.size() - 1;
+            });
+        }
+    }
+
+    // Номер рецепта или -1, если его нет
+    public int find(String recipeName) {
+        Integer index = indices.get(recipeName);
+        return index == null ? -1 : index;
+    }
+
+    public String nameOf(int index) {
+        synchronized (names) {
+            return names.get(index);
+        }
+    }
+
+    public int size() {
+        synchronized (names) {
+            return names.size();
+        }
+    }
+}
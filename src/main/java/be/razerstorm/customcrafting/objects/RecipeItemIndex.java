@@ -0,0 +1,142 @@
+package be.razerstorm.customcrafting.objects;
+
+import be.razerstorm.customcrafting.codecs.RecipeCodecs;
+import be.razerstorm.customcrafting.utils.ItemFingerprint;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Неизменяемый обратный индекс от предметов к рецептам по материалу и отпечатку, кандидатов проверяет вызывающий
+public final class RecipeItemIndex {
+
+    public static final RecipeItemIndex EMPTY = new RecipeItemIndex(new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>());
+
+    private final Map<Material, Set<String>> outputsByMaterial;
+    private final Map<Integer, Set<String>> outputsByFingerprint;
+    private final Map<Material, Set<String>> usesByMaterial;
+    private final Map<Integer, Set<String>> usesByFingerprint;
+
+    private RecipeItemIndex(Map<Material, Set<String>> outputsByMaterial, Map<Integer, Set<String>> outputsByFingerprint,
+                            Map<Material, Set<String>> usesByMaterial, Map<Integer, Set<String>> usesByFingerprint) {
+        this.outputsByMaterial = outputsByMaterial;
+        this.outputsByFingerprint = outputsByFingerprint;
+        this.usesByMaterial = usesByMaterial;
+        this.usesByFingerprint = usesByFingerprint;
+    }
+
+    public static RecipeItemIndex of(Collection<CustomRecipe> recipes) {
+        Updater updater = new Updater(EMPTY);
+        recipes.forEach(updater::add);
+        return updater.build();
+    }
+
+    // removed и added - старая и новая версии рецепта, любая может быть null
+    public RecipeItemIndex update(CustomRecipe removed, CustomRecipe added) {
+        Updater updater = new Updater(this);
+        if (removed != null) updater.remove(removed);
+        if (added != null) updater.add(added);
+        return updater.build();
+    }
+
+    public Set<String> getOutputs(Material material) {
+        return view(outputsByMaterial.get(material));
+    }
+
+    public Set<String> getOutputCandidates(ItemStack item) {
+        return view(outputsByFingerprint.get(ItemFingerprint.of(item)));
+    }
+
+    public Set<String> getUses(Material material) {
+        return view(usesByMaterial.get(material));
+    }
+
+    public Set<String> getUseCandidates(ItemStack item) {
+        return view(usesByFingerprint.get(ItemFingerprint.of(item)));
+    }
+
+    public static List<ItemStack> getInputs(CustomRecipe recipe) {
+        return RecipeCodecs.get(recipe.getType()).getInputs(recipe);
+    }
+
+    private static Set<String> view(Set<String> names) {
+        return names == null ? Collections.emptySet() : Collections.unmodifiableSet(names);
+    }
+
+    // Внешние карты копируются один раз, множества имён - при первой записи, остальные остаются общими
+    private static final class Updater {
+        private final Map<Material, Set<String>> outputsByMaterial;
+        private final Map<Integer, Set<String>> outputsByFingerprint;
+        private final Map<Material, Set<String>> usesByMaterial;
+        private final Map<Integer, Set<String>> usesByFingerprint;
+        private final Set<Set<String>> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Updater(RecipeItemIndex source) {
+            this.outputsByMaterial = new HashMap<>(source.outputsByMaterial);
+            this.outputsByFingerprint = new HashMap<>(source.outputsByFingerprint);
+            this.usesByMaterial = new HashMap<>(source.usesByMaterial);
+            this.usesByFingerprint = new HashMap<>(source.usesByFingerprint);
+        }
+
+        private void add(CustomRecipe recipe) {
+            String name = recipe.getName();
+            put(outputsByMaterial, recipe.getOutput().getType(), name);
+            put(outputsByFingerprint, ItemFingerprint.of(recipe.getOutput()), name);
+            for (ItemStack input : getInputs(recipe)) {
+                put(usesByMaterial, input.getType(), name);
+                put(usesByFingerprint, ItemFingerprint.of(input), name);
+            }
+        }
+
+        private void remove(CustomRecipe recipe) {
+            String name = recipe.getName();
+            delete(outputsByMaterial, recipe.getOutput().getType(), name);
+            delete(outputsByFingerprint, ItemFingerprint.of(recipe.getOutput()), name);
+            for (ItemStack input : getInputs(recipe)) {
+                delete(usesByMaterial, input.getType(), name);
+                delete(usesByFingerprint, ItemFingerprint.of(input), name);
+            }
+        }
+
+        private <K> void put(Map<K, Set<String>> map, K key, String name) {
+            Set<String> names = map.get(key);
+            if (names == null) {
+                names = new HashSet<>();
+                owned.add(names);
+                map.put(key, names);
+            } else if (!owned.contains(names)) {
+                names = new HashSet<>(names);
+                owned.add(names);
+                map.put(key, names);
+            }
+            names.add(name);
+        }
+
+        private <K> void delete(Map<K, Set<String>> map, K key, String name) {
+            Set<String> names = map.get(key);
+            if (names == null || !names.contains(name)) return;
+
+            if (names.size() == 1) {
+                map.remove(key);
+                return;
+            }
+            if (!owned.contains(names)) {
+                names = new HashSet<>(names);
+                owned.add(names);
+                map.put(key, names);
+            }
+            names.remove(name);
+        }
+
+        private RecipeItemIndex build() {
+            return new RecipeItemIndex(outputsByMaterial, outputsByFingerprint, usesByMaterial, usesByFingerprint);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package be.razerstorm.customcrafting.objects;
+
+import be.razerstorm.customcrafting.enums.MatchMode;
+import be.razerstorm.customcrafting.enums.RecipeType;
+import be.razerstorm.customcrafting.utils.Bipartite;
+import be.razerstorm.customcrafting.utils.ItemFingerprint;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Неизменяемый поиск рецепта по сетке крафта: формы по раскладке RecipeShape, точные рецепты по отпечаткам предметов
+public final class RecipeMatcher {
+
+    public static final RecipeMatcher EMPTY = new RecipeMatcher(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+    private final Map<Integer, Bucket> buckets;
+    // Хэш мультимножества -> бесформенные рецепты только с точными ингредиентами
+    private final Map<Integer, List<Shapeless>> shapelessExact;
+    // Число ингредиентов -> остальные бесформенные рецепты
+    private final Map<Integer, List<Shapeless>> shapelessLoose;
+
+    private RecipeMatcher(Map<Integer, Bucket> buckets, Map<Integer, List<Shapeless>> shapelessExact, Map<Integer, List<Shapeless>> shapelessLoose) {
+        this.buckets = buckets;
+        this.shapelessExact = shapelessExact;
+        this.shapelessLoose = shapelessLoose;
+    }
+
+    public static RecipeMatcher of(Collection<CustomRecipe> recipes) {
+        Map<Integer, Bucket> buckets = new HashMap<>();
+        Map<Integer, List<Shapeless>> shapelessExact = new HashMap<>();
+        Map<Integer, List<Shapeless>> shapelessLoose = new HashMap<>();
+        for (CustomRecipe recipe : recipes) {
+            if (recipe.getType() == RecipeType.SHAPELESS) {
+                Shapeless shapeless = Shapeless.of(recipe);
+                if (shapeless == null) continue;
+                if (shapeless.exact) {
+                    shapelessExact.computeIfAbsent(shapeless.hash, hash -> new ArrayList<>(1)).add(shapeless);
+                } else {
+                    shapelessLoose.computeIfAbsent(shapeless.identifiers.size(), count -> new ArrayList<>(1)).add(shapeless);
+                }
+                continue;
+            }
+            if (recipe.getType() != RecipeType.CRAFTING) continue;
+
+            Pattern pattern = Pattern.of(recipe);
+            if (pattern == null) continue;
+            buckets.computeIfAbsent(pattern.layout, layout -> new Bucket()).add(pattern);
+
+            if (!pattern.shape.isSymmetric()) {
+                Pattern mirrored = new Pattern(recipe, pattern.shape.mirror());
+                buckets.computeIfAbsent(mirrored.layout, layout -> new Bucket()).add(mirrored);
+            }
+        }
+        return new RecipeMatcher(buckets, shapelessExact, shapelessLoose);
+    }
+
+    // matrix - квадратная сетка построчно, null или AIR для пустого слота
+    public CustomRecipe match(ItemStack[] matrix) {
+        CustomRecipe shaped = matchShaped(matrix);
+        if (shaped != null || (shapelessExact.isEmpty() && shapelessLoose.isEmpty())) return shaped;
+        return matchShapeless(matrix);
+    }
+
+    private CustomRecipe matchShaped(ItemStack[] matrix) {
+        int size = matrix.length == 4 ? 2 : 3;
+        int top = size, bottom = -1, left = size, right = -1;
+        for (int slot = 0; slot < size * size && slot < matrix.length; slot++) {
+            if (isEmpty(matrix[slot])) continue;
+            int row = slot / size;
+            int column = slot % size;
+            top = Math.min(top, row);
+            bottom = Math.max(bottom, row);
+            left = Math.min(left, column);
+            right = Math.max(right, column);
+        }
+        if (bottom == -1) return null;
+
+        int width = right - left + 1;
+        int height = bottom - top + 1;
+        ItemStack[] cells = new ItemStack[width * height];
+        int mask = 0;
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                ItemStack item = matrix[(top + row) * size + left + column];
+                if (isEmpty(item)) continue;
+                cells[row * width + column] = item;
+                mask |= 1 << (row * width + column);
+            }
+        }
+
+        Bucket bucket = buckets.get(RecipeShape.layout(width, height, mask));
+        if (bucket == null) return null;
+
+        if (!bucket.exact.isEmpty()) {
+            int hash = 0;
+            for (ItemStack cell : cells) {
+                if (cell != null) hash = hash * 31 + ItemFingerprint.of(cell);
+            }
+            CustomRecipe match = bucket.exact.containsKey(hash) ? firstMatch(bucket.exact.get(hash), cells) : null;
+            if (match != null) return match;
+        }
+        return firstMatch(bucket.loose, cells);
+    }
+
+    private CustomRecipe matchShapeless(ItemStack[] matrix) {
+        List<ItemStack> items = new ArrayList<>(matrix.length);
+        for (ItemStack item : matrix) {
+            if (!isEmpty(item)) items.add(item);
+        }
+        if (items.isEmpty()) return null;
+
+        int[] fingerprints = new int[items.size()];
+        for (int i = 0; i < fingerprints.length; i++) {
+            fingerprints[i] = ItemFingerprint.of(items.get(i));
+        }
+        Arrays.sort(fingerprints);
+
+        CustomRecipe match = firstShapelessMatch(shapelessExact.get(Arrays.hashCode(fingerprints)), items);
+        return match != null ? match : firstShapelessMatch(shapelessLoose.get(items.size()), items);
+    }
+
+    private static CustomRecipe firstShapelessMatch(List<Shapeless> candidates, List<ItemStack> items) {
+        if (candidates == null) return null;
+        for (Shapeless candidate : candidates) {
+            if (candidate.matches(items)) return candidate.recipe;
+        }
+        return null;
+    }
+
+    private static CustomRecipe firstMatch(List<Pattern> candidates, ItemStack[] cells) {
+        for (Pattern candidate : candidates) {
+            if (candidate.matches(cells)) return candidate.recipe;
+        }
+        return null;
+    }
+
+    private static boolean isEmpty(ItemStack item) {
+        return item == null || item.getType() == Material.AIR;
+    }
+
+    private static final class Bucket {
+        // Хэш отпечатков клеток -> формы только с точными ингредиентами
+        private final Map<Integer, List<Pattern>> exact = new HashMap<>();
+        private final List<Pattern> loose = new ArrayList<>(1);
+
+        private void add(Pattern pattern) {
+            if (pattern.exact) {
+                exact.computeIfAbsent(pattern.hash, hash -> new ArrayList<>(1)).add(pattern);
+            } else {
+                loose.add(pattern);
+            }
+        }
+    }
+
+    private static final class Pattern {
+        private final CustomRecipe recipe;
+        private final RecipeShape shape;
+        private final int layout;
+        private final boolean exact;
+        private final int hash;
+
+        private Pattern(CustomRecipe recipe, RecipeShape shape) {
+            this.recipe = recipe;
+            this.shape = shape;
+
+            int hash = 0;
+            boolean exact = true;
+            for (int i = 0; i < shape.size(); i++) {
+                char identifier = shape.get(i);
+                if (identifier == 0) continue;
+                hash = hash * 31 + ItemFingerprint.of(recipe.getIngredients().get(identifier));
+                exact &= recipe.getMatch(identifier).getMode() == MatchMode.EXACT;
+            }
+            this.layout = shape.layout(false);
+            this.exact = exact;
+            this.hash = hash;
+        }
+
+        private static Pattern of(CustomRecipe recipe) {
+            Map<Character, ItemStack> ingredients = recipe.getIngredients();
+            RecipeShape shape = RecipeShape.of(recipe.getShape(), identifier -> ingredients.get(identifier) != null);
+            return shape == null ? null : new Pattern(recipe, shape);
+        }
+
+        private boolean matches(ItemStack[] grid) {
+            for (int i = 0; i < shape.size(); i++) {
+                char identifier = shape.get(i);
+                if (identifier == 0 ? grid[i] != null : grid[i] == null || !recipe.test(identifier, grid[i])) return false;
+            }
+            return true;
+        }
+    }
+
+    private static final class Shapeless {
+        private final CustomRecipe recipe;
+        private final List<Character> identifiers;
+        private final boolean exact;
+        private final int hash;
+
+        private Shapeless(CustomRecipe recipe, List<Character> identifiers, boolean exact, int hash) {
+            this.recipe = recipe;
+            this.identifiers = identifiers;
+            this.exact = exact;
+            this.hash = hash;
+        }
+
+        private static Shapeless of(CustomRecipe recipe) {
+            char[] identifiers = recipe.getIdentifiers();
+            if (identifiers.length == 0) return null;
+
+            List<Character> list = new ArrayList<>(identifiers.length);
+            int[] fingerprints = new int[identifiers.length];
+            boolean exact = true;
+            for (int i = 0; i < identifiers.length; i++) {
+                list.add(identifiers[i]);
+                fingerprints[i] = ItemFingerprint.of(recipe.getIngredients().get(identifiers[i]));
+                exact &= recipe.getMatch(identifiers[i]).getMode() == MatchMode.EXACT;
+            }
+            Arrays.sort(fingerprints);
+            return new Shapeless(recipe, list, exact, Arrays.hashCode(fingerprints));
+        }
+
+        private boolean matches(List<ItemStack> items) {
+            return Bipartite.hasPerfectMatching(items, identifiers, recipe::test);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package be.razerstorm.customcrafting.objects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+// Неизменяемый индекс префиксов имён без учёта регистра на отсортированном массиве
+public final class RecipeNameIndex {
+
+    public static final RecipeNameIndex EMPTY = new RecipeNameIndex(new String[0], new String[0]);
+
+    // keys[i] - names[i] в нижнем регистре, сортировка по ключу, потом по имени
+    private final String[] keys;
+    private final String[] names;
+
+    private RecipeNameIndex(String[] keys, String[] names) {
+        this.keys = keys;
+        this.names = names;
+    }
+
+    public static RecipeNameIndex of(Collection<String> recipeNames) {
+        String[] names = recipeNames.toArray(new String[0]);
+        Arrays.sort(names, (a, b) -> {
+            int result = key(a).compareTo(key(b));
+            return result != 0 ? result : a.compareTo(b);
+        });
+
+        String[] keys = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            keys[i] = key(names[i]);
+        }
+        return new RecipeNameIndex(keys, names);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    // Все имена в порядке индекса, только для чтения
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    // Имена, содержащие текст без учёта регистра, в порядке индекса
+    public List<String> filter(String text) {
+        String key = key(text);
+        List<String> matches = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].contains(key)) matches.add(names[i]);
+        }
+        return matches;
+    }
+
+    // Не больше limit имён с префиксом без учёта регистра, по алфавиту
+    public List<String> complete(String prefix, int limit) {
+        return complete(prefix, limit, name -> true);
+    }
+
+    // Не больше limit имён с префиксом, принятых фильтром
+    public List<String> complete(String prefix, int limit, Predicate<String> filter) {
+        String key = key(prefix);
+        int index = lowerBound(key, null);
+        if (index == keys.length || !keys[index].startsWith(key)) return new ArrayList<>();
+
+        List<String> matches = new ArrayList<>(Math.min(limit, keys.length - index));
+        for (int i = index; i < keys.length && matches.size() < limit && keys[i].startsWith(key); i++) {
+            if (filter.test(names[i])) matches.add(names[i]);
+        }
+        return matches;
+    }
+
+    public RecipeNameIndex with(String recipeName) {
+        String key = key(recipeName);
+        int index = lowerBound(key, recipeName);
+        if (index < names.length && names[index].equals(recipeName)) return this;
+
+        return new RecipeNameIndex(insert(keys, index, key), insert(names, index, recipeName));
+    }
+
+    public RecipeNameIndex without(String recipeName) {
+        int index = lowerBound(key(recipeName), recipeName);
+        if (index == names.length || !names[index].equals(recipeName)) return this;
+
+        return new RecipeNameIndex(remove(keys, index), remove(names, index));
+    }
+
+    // Первая позиция не раньше (key, name), null-имя идёт перед всеми именами с этим ключом
+    private int lowerBound(String key, String name) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int result = keys[middle].compareTo(key);
+            if (result == 0 && name != null) result = names[middle].compareTo(name);
+            if (result < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] insert(String[] array, int index, String value) {
+        String[] copy = new String[array.length + 1];
+        System.arraycopy(array, 0, copy, 0, index);
+        copy[index] = value;
+        System.arraycopy(array, index, copy, index + 1, array.length - index);
+        return copy;
+    }
+
+    private static String[] remove(String[] array, int index) {
+        String[] copy = new String[array.length - 1];
+        System.arraycopy(array, 0, copy, 0, index);
+        System.arraycopy(array, index + 1, copy, index, array.length - index - 1);
+        return copy;
+    }
+}
@@ -0,0 +1,116 @@
+package be.razerstorm.customcrafting.objects;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Неизменяемый снимок всех рецептов, изменения создают новый реестр
+public final class RecipeRegistry {
+
+    public static final RecipeRegistry EMPTY = new RecipeRegistry(Collections.emptyMap(), RecipeNameIndex.EMPTY, RecipeItemIndex.EMPTY);
+
+    private final Map<String, CustomRecipe> recipes;
+    private final RecipeNameIndex nameIndex;
+    private final RecipeItemIndex itemIndex;
+
+    private RecipeRegistry(Map<String, CustomRecipe> recipes, RecipeNameIndex nameIndex, RecipeItemIndex itemIndex) {
+        this.recipes = Collections.unmodifiableMap(recipes);
+        this.nameIndex = nameIndex;
+        this.itemIndex = itemIndex;
+    }
+
+    public static RecipeRegistry of(Map<String, CustomRecipe> recipes) {
+        return new RecipeRegistry(new LinkedHashMap<>(recipes), RecipeNameIndex.of(recipes.keySet()), RecipeItemIndex.of(recipes.values()));
+    }
+
+    public CustomRecipe get(String recipeName) {
+        return recipes.get(recipeName);
+    }
+
+    public boolean contains(String recipeName) {
+        return recipes.containsKey(recipeName);
+    }
+
+    public Set<String> getNames() {
+        return recipes.keySet();
+    }
+
+    public RecipeNameIndex getNameIndex() {
+        return nameIndex;
+    }
+
+    // Рецепты с этим материалом в результате, отсортированы
+    public List<String> findByOutput(Material material) {
+        return sorted(itemIndex.getOutputs(material));
+    }
+
+    // Рецепты с этим предметом в результате без учёта количества, отсортированы
+    public List<String> findByOutput(ItemStack item) {
+        List<String> matches = new ArrayList<>();
+        for (String recipeName : itemIndex.getOutputCandidates(item)) {
+            if (recipes.get(recipeName).getOutput().isSimilar(item)) matches.add(recipeName);
+        }
+        return sorted(matches);
+    }
+
+    // Рецепты с этим материалом в ингредиентах, отсортированы
+    public List<String> findByInput(Material material) {
+        return sorted(itemIndex.getUses(material));
+    }
+
+    // Рецепты с этим предметом в ингредиентах без учёта количества, отсортированы
+    public List<String> findByInput(ItemStack item) {
+        List<String> matches = new ArrayList<>();
+        for (String recipeName : itemIndex.getUseCandidates(item)) {
+            for (ItemStack input : RecipeItemIndex.getInputs(recipes.get(recipeName))) {
+                if (input.isSimilar(item)) {
+                    matches.add(recipeName);
+                    break;
+                }
+            }
+        }
+        return sorted(matches);
+    }
+
+    public Collection<CustomRecipe> getRecipes() {
+        return recipes.values();
+    }
+
+    public Map<String, CustomRecipe> asMap() {
+        return recipes;
+    }
+
+    public int size() {
+        return recipes.size();
+    }
+
+    public boolean isEmpty() {
+        return recipes.isEmpty();
+    }
+
+    public RecipeRegistry with(CustomRecipe recipe) {
+        Map<String, CustomRecipe> copy = new LinkedHashMap<>(recipes);
+        CustomRecipe previous = copy.put(recipe.getName(), recipe);
+        return new RecipeRegistry(copy, nameIndex.with(recipe.getName()), itemIndex.update(previous, recipe));
+    }
+
+    public RecipeRegistry without(String recipeName) {
+        if (!recipes.containsKey(recipeName)) return this;
+        Map<String, CustomRecipe> copy = new LinkedHashMap<>(recipes);
+        CustomRecipe previous = copy.remove(recipeName);
+        return new RecipeRegistry(copy, nameIndex.without(recipeName), itemIndex.update(previous, null));
+    }
+
+    private static List<String> sorted(Collection<String> names) {
+        List<String> list = new ArrayList<>(names);
+        list.sort(String.CASE_INSENSITIVE_ORDER);
+        return list;
+    }
+}
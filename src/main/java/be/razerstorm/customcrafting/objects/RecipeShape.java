@@ -0,0 +1,105 @@
+package be.razerstorm.customcrafting.objects;
+
+import lombok.Getter;
+
+import java.util.function.Predicate;
+
+// Форма крафта, обрезанная до занятых строк и столбцов: символы построчно, 0 для пустой клетки
+public final class RecipeShape {
+
+    private final @Getter int width;
+    private final @Getter int height;
+    private final char[] cells;
+    private final int mask;
+    private final int mirroredMask;
+
+    private RecipeShape(int width, int height, char[] cells) {
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+
+        int mask = 0;
+        int mirroredMask = 0;
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                if (cells[row * width + column] == 0) continue;
+                mask |= 1 << (row * width + column);
+                mirroredMask |= 1 << (row * width + width - 1 - column);
+            }
+        }
+        this.mask = mask;
+        this.mirroredMask = mirroredMask;
+    }
+
+    // Пробел никогда не ингредиент, null, если ни одна клетка не занята
+    public static RecipeShape of(String[] shape, Predicate<Character> used) {
+        int top = Integer.MAX_VALUE, bottom = -1, left = Integer.MAX_VALUE, right = -1;
+        for (int row = 0; row < shape.length; row++) {
+            for (int column = 0; column < shape[row].length(); column++) {
+                if (!isUsed(shape[row].charAt(column), used)) continue;
+                top = Math.min(top, row);
+                bottom = Math.max(bottom, row);
+                left = Math.min(left, column);
+                right = Math.max(right, column);
+            }
+        }
+        if (bottom == -1) return null;
+
+        int width = right - left + 1;
+        int height = bottom - top + 1;
+        char[] cells = new char[width * height];
+        for (int row = 0; row < height; row++) {
+            String line = shape[top + row];
+            for (int column = 0; column < width; column++) {
+                if (left + column >= line.length()) continue;
+                char identifier = line.charAt(left + column);
+                if (isUsed(identifier, used)) cells[row * width + column] = identifier;
+            }
+        }
+        return new RecipeShape(width, height, cells);
+    }
+
+    private static boolean isUsed(char identifier, Predicate<Character> used) {
+        return identifier != ' ' && used.test(identifier);
+    }
+
+    public static int layout(int width, int height, int mask) {
+        return width << 12 | height << 9 | mask;
+    }
+
+    public int layout(boolean mirrored) {
+        return layout(width, height, mirrored ? mirroredMask : mask);
+    }
+
+    public int size() {
+        return cells.length;
+    }
+
+    public char get(int index) {
+        return cells[index];
+    }
+
+    public char get(int row, int column, boolean mirrored) {
+        return cells[index(row, column, mirrored)];
+    }
+
+    public int index(int row, int column, boolean mirrored) {
+        return row * width + (mirrored ? width - 1 - column : column);
+    }
+
+    public RecipeShape mirror() {
+        char[] mirrored = new char[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            mirrored[i] = get(i / width, i % width, true);
+        }
+        return new RecipeShape(width, height, mirrored);
+    }
+
+    // Совпадают ли символы отражённой формы во всех клетках
+    public boolean isSymmetric() {
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != get(i / width, i % width, true)) return false;
+        }
+        return true;
+    }
+}
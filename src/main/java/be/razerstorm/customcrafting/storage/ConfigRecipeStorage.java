@@ -0,0 +1,87 @@
+package be.razerstorm.customcrafting.storage;
+
+import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.utils.Utils;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Хранит все рецепты в секции recipes файла config.yml
+public class ConfigRecipeStorage implements RecipeStorage {
+
+    public static final String SECTION = "recipes";
+
+    private final File file;
+
+    // config.yml, разобранный загрузчиком, используется для всех записей после загрузки
+    private volatile YamlConfiguration document;
+
+    public ConfigRecipeStorage(CustomCrafting plugin) {
+        this.file = new File(plugin.getDataFolder(), "config.yml");
+    }
+
+    // Разбирает config.yml один раз за загрузку, настройки плагина берутся из того же документа
+    public synchronized YamlConfiguration reload() {
+        document = YamlConfiguration.loadConfiguration(file);
+        return document;
+    }
+
+    @Override
+    public List<String> loadIndex() {
+        ConfigurationSection section = getDocument().getConfigurationSection(SECTION);
+        return section == null ? new ArrayList<>() : new ArrayList<>(section.getKeys(false));
+    }
+
+    @Override
+    public ConfigurationSection loadRecipe(String recipeName) {
+        return getDocument().getConfigurationSection(SECTION + "." + recipeName);
+    }
+
+    @Override
+    public boolean hasChanged(String recipeName) {
+        return true;
+    }
+
+    @Override
+    public long fingerprint() {
+        return file.lastModified() * 31 + file.length();
+    }
+
+    @Override
+    public Map<String, Integer> countOutdatedItems(int dataVersion) throws IOException {
+        Object root = DataVersionUpgrader.parse(file);
+        return DataVersionUpgrader.countOutdatedPerKey(root instanceof Map ? ((Map<?, ?>) root).get(SECTION) : null, dataVersion);
+    }
+
+    @Override
+    public synchronized void write(Map<String, CustomRecipe> changes) throws IOException {
+        if (changes.isEmpty()) return;
+
+        YamlConfiguration document = getDocument();
+        changes.forEach((recipeName, recipe) -> {
+            String basePath = SECTION + "." + recipeName;
+            document.set(basePath, null);
+            if (recipe != null) {
+                RecipeSerializer.write(document.createSection(basePath), recipe);
+            }
+        });
+
+        Utils.writeAtomically(file, document.saveToString());
+    }
+
+    @Override
+    public synchronized void invalidate() {
+        document = null;
+    }
+
+    private YamlConfiguration getDocument() {
+        YamlConfiguration current = document;
+        return current != null ? current : reload();
+    }
+}
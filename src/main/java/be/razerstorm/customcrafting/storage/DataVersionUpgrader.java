@@ -0,0 +1,97 @@
+package be.razerstorm.customcrafting.storage;
+
+import be.razerstorm.customcrafting.CustomCrafting;
+import org.bukkit.Bukkit;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+// Находит предметы, записанные старой версией сервера, они проходят через DataFixer при каждой загрузке, пока их не перезапишут
+public class DataVersionUpgrader {
+
+    private static final String TYPE_KEY = "==";
+    private static final String ITEM_TYPE = "org.bukkit.inventory.ItemStack";
+
+    private final CustomCrafting plugin;
+    // Версия данных, с которой всё проверено в последний раз
+    private final File marker;
+
+    public DataVersionUpgrader(CustomCrafting plugin) {
+        this.plugin = plugin;
+        this.marker = new File(new File(plugin.getDataFolder(), "cache"), "data-version");
+    }
+
+    public boolean isCheckNeeded() {
+        if (!marker.isFile()) {
+            return true;
+        }
+
+        try {
+            String version = new String(Files.readAllBytes(marker.toPath()), StandardCharsets.UTF_8).trim();
+            return Integer.parseInt(version) < getDataVersion();
+        } catch (IOException | NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public void markChecked() {
+        try {
+            Files.createDirectories(marker.getParentFile().toPath());
+            Files.write(marker.toPath(), String.valueOf(getDataVersion()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not write " + marker.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    public static int getDataVersion() {
+        return Bukkit.getUnsafe().getDataVersion();
+    }
+
+    // Читает YAML как обычные карты и списки, версия предметов видна только до десериализации Bukkit
+    public static Object parse(File file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return new Yaml().load(reader);
+        }
+    }
+
+    // Предметы без версии - из версий до 1.13
+    public static int countOutdated(Object node, int dataVersion) {
+        int outdated = 0;
+        if (node instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) node;
+            if (ITEM_TYPE.equals(map.get(TYPE_KEY))) {
+                Object version = map.get("v");
+                if (!(version instanceof Number) || ((Number) version).intValue() < dataVersion) outdated++;
+            }
+            for (Object value : map.values()) {
+                outdated += countOutdated(value, dataVersion);
+            }
+        } else if (node instanceof Collection) {
+            for (Object value : (Collection<?>) node) {
+                outdated += countOutdated(value, dataVersion);
+            }
+        }
+        return outdated;
+    }
+
+    // Считает устаревшие предметы для каждого рецепта секции
+    public static Map<String, Integer> countOutdatedPerKey(Object section, int dataVersion) {
+        Map<String, Integer> outdated = new HashMap<>();
+        if (!(section instanceof Map)) return outdated;
+
+        ((Map<?, ?>) section).forEach((key, value) -> {
+            int count = countOutdated(value, dataVersion);
+            if (count > 0) outdated.put(String.valueOf(key), count);
+        });
+        return outdated;
+    }
+}
@@ -0,0 +1,138 @@
+package be.razerstorm.customcrafting.storage;
+
+import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.utils.Utils;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Хранит каждый рецепт в своём файле, правка перезаписывает только его
+public class FileRecipeStorage implements RecipeStorage {
+
+    private static final String EXTENSION = ".yml";
+
+    private final File folder;
+    // Имя рецепта -> отметка файла при последней загрузке или записи
+    private final Map<String, Long> stamps = new ConcurrentHashMap<>();
+
+    public FileRecipeStorage(CustomCrafting plugin) {
+        this.folder = new File(plugin.getDataFolder(), "recipes");
+    }
+
+    @Override
+    public List<String> loadIndex() {
+        List<String> recipeNames = new ArrayList<>();
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return recipeNames;
+        }
+
+        for (File file : files) {
+            String name = file.getName();
+            recipeNames.add(name.substring(0, name.length() - EXTENSION.length()));
+        }
+        return recipeNames;
+    }
+
+    @Override
+    public ConfigurationSection loadRecipe(String recipeName) {
+        File file = getFile(recipeName);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        long stamp = stamp(file);
+        YamlConfiguration recipe = YamlConfiguration.loadConfiguration(file);
+        stamps.put(recipeName, stamp);
+        return recipe;
+    }
+
+    @Override
+    public boolean hasChanged(String recipeName) {
+        Long stamp = stamps.get(recipeName);
+        return stamp == null || stamp != stamp(getFile(recipeName));
+    }
+
+    @Override
+    public long fingerprint() {
+        List<String> recipeNames = loadIndex();
+        Collections.sort(recipeNames);
+
+        long fingerprint = 1;
+        for (String recipeName : recipeNames) {
+            fingerprint = fingerprint * 31 + recipeName.hashCode();
+            fingerprint = fingerprint * 31 + stamp(getFile(recipeName));
+        }
+        return fingerprint;
+    }
+
+    @Override
+    public Map<String, Integer> countOutdatedItems(int dataVersion) {
+        Map<String, Integer> outdated = new ConcurrentHashMap<>();
+        loadIndex().parallelStream().forEach(recipeName -> {
+            try {
+                int count = DataVersionUpgrader.countOutdated(DataVersionUpgrader.parse(getFile(recipeName)), dataVersion);
+                if (count > 0) outdated.put(recipeName, count);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return outdated;
+    }
+
+    @Override
+    public void markLoaded(String recipeName) {
+        stamps.put(recipeName, stamp(getFile(recipeName)));
+    }
+
+    @Override
+    public synchronized void write(Map<String, CustomRecipe> changes) throws IOException {
+        if (changes.isEmpty()) return;
+
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+
+        for (Map.Entry<String, CustomRecipe> entry : changes.entrySet()) {
+            File file = getFile(entry.getKey());
+
+            if (entry.getValue() == null) {
+                Files.deleteIfExists(file.toPath());
+                stamps.remove(entry.getKey());
+                continue;
+            }
+
+            YamlConfiguration document = new YamlConfiguration();
+            RecipeSerializer.write(document, entry.getValue());
+            Utils.writeAtomically(file, document.saveToString());
+            stamps.put(entry.getKey(), stamp(file));
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        // Отметки сверяются с файлами при каждом вызове, забывать нечего
+    }
+
+    private File getFile(String recipeName) {
+        File file = new File(folder, recipeName + EXTENSION);
+        if (!folder.equals(file.getParentFile())) {
+            throw new IllegalArgumentException("Invalid recipe name: " + recipeName);
+        }
+        return file;
+    }
+
+    private long stamp(File file) {
+        return file.lastModified() * 31 + file.length();
+    }
+}
@@ -0,0 +1,123 @@
+package be.razerstorm.customcrafting.storage;
+
+import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+// Отложенная запись правок: изменения собираются в главном потоке и пишутся одним потоком записи
+public class RecipePersister {
+
+    private static final long FLUSH_DELAY_TICKS = 20L;
+
+    private final CustomCrafting plugin;
+    private volatile RecipeStorage storage;
+    // Отпечаток хранилища, соответствующий рецептам в памяти, null, если его изменил кто-то другой
+    private volatile Long fingerprint;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "CustomCrafting-Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Имя рецепта -> последняя версия, null - рецепт удалён. Только главный поток
+    private Map<String, CustomRecipe> pending = new HashMap<>();
+    private BukkitTask flushTask;
+
+    public RecipePersister(CustomCrafting plugin, RecipeStorage storage) {
+        this.plugin = plugin;
+        this.storage = storage;
+    }
+
+    public RecipeStorage getStorage() {
+        return storage;
+    }
+
+    // Отпечаток хранилища, с которого были прочитаны рецепты
+    public void setStorage(RecipeStorage storage, long fingerprint) {
+        this.storage = storage;
+        this.fingerprint = fingerprint;
+    }
+
+    // Отпечаток после всех записей, null, если он уже не соответствует рецептам в памяти
+    public Long getFingerprint() {
+        return fingerprint;
+    }
+
+    public void save(CustomRecipe recipe) {
+        pending.put(recipe.getName(), recipe);
+        scheduleFlush();
+    }
+
+    public void delete(String recipeName) {
+        pending.put(recipeName, null);
+        scheduleFlush();
+    }
+
+    // Передаёт изменения потоку записи, завершается с ошибкой, если запись не удалась
+    public CompletableFuture<Void> flush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        Map<String, CustomRecipe> changes = pending;
+        RecipeStorage target = storage;
+        pending = new HashMap<>();
+
+        return CompletableFuture.runAsync(() -> write(target, changes), writer);
+    }
+
+    // Сбрасывает кэш хранилища, следующая запись начнётся с того, что на диске
+    public CompletableFuture<Void> invalidate() {
+        RecipeStorage current = storage;
+        return CompletableFuture.runAsync(current::invalidate, writer);
+    }
+
+    public void shutdown() {
+        flush();
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                fingerprint = null;
+                plugin.getLogger().warning("Timed out while saving recipes to disk!");
+            }
+        } catch (InterruptedException e) {
+            fingerprint = null;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushTask != null) return;
+        flushTask = plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            flushTask = null;
+            flush();
+        }, FLUSH_DELAY_TICKS);
+    }
+
+    private void write(RecipeStorage target, Map<String, CustomRecipe> changes) {
+        if (changes.isEmpty()) return;
+
+        // Отпечаток сдвигают только наши записи, любое другое изменение на диске делает его недействительным
+        Long expected = fingerprint;
+        boolean tracked = target == storage && expected != null && expected == target.fingerprint();
+        try {
+            target.write(changes);
+        } catch (IOException e) {
+            if (target == storage) fingerprint = null;
+            plugin.getLogger().log(Level.SEVERE, "Could not save recipes", e);
+            throw new UncheckedIOException(e);
+        }
+        if (target == storage) fingerprint = tracked ? target.fingerprint() : null;
+    }
+}
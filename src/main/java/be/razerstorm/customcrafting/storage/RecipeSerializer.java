@@ -0,0 +1,35 @@
+package be.razerstorm.customcrafting.storage;
+
+import be.razerstorm.customcrafting.codecs.RecipeCodecs;
+import be.razerstorm.customcrafting.enums.RecipeType;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.ItemStack;
+
+public class RecipeSerializer {
+
+    public static CustomRecipe read(String recipeName, ConfigurationSection section) {
+        if (section == null || section.get("result") == null || section.get("type") == null) {
+            return null;
+        }
+
+        if (!RecipeType.typeExists(section.getString("type"))) {
+            return null;
+        }
+
+        RecipeType type = RecipeType.valueOf(section.getString("type").toUpperCase());
+        if (!RecipeCodecs.isSupported(type)) {
+            return null;
+        }
+        ItemStack output = (ItemStack) section.get("result");
+
+        return RecipeCodecs.get(type).read(recipeName, type, output, section);
+    }
+
+    public static void write(ConfigurationSection section, CustomRecipe recipe) {
+        section.set("type", recipe.getType().name());
+        section.set("result", recipe.getOutput());
+
+        RecipeCodecs.get(recipe.getType()).write(section, recipe);
+    }
+}
@@ -0,0 +1,103 @@
+package be.razerstorm.customcrafting.storage;
+
+import be.razerstorm.customcrafting.CustomCrafting;
+import be.razerstorm.customcrafting.codecs.RecipeCodecs;
+import be.razerstorm.customcrafting.enums.RecipeType;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+// Бинарный снимок рецептов, чтобы не разбирать YAML при тёплом старте, не используется при другом отпечатке хранилища или версии данных
+public class RecipeSnapshotCache {
+
+    private static final int MAGIC = 0x43435243;
+    private static final int FORMAT_VERSION = 2;
+
+    private final CustomCrafting plugin;
+    private final File file;
+
+    public RecipeSnapshotCache(CustomCrafting plugin) {
+        this.plugin = plugin;
+        this.file = new File(new File(plugin.getDataFolder(), "cache"), "recipes.dat");
+    }
+
+    // null, если нет снимка для этого отпечатка хранилища
+    public Map<String, CustomRecipe> read(RecipeStorage storage, long fingerprint) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (ObjectInputStream in = new BukkitObjectInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return null;
+            if (in.readInt() != DataVersionUpgrader.getDataVersion()) return null;
+            if (!in.readUTF().equals(storage.getClass().getSimpleName())) return null;
+            if (in.readLong() != fingerprint) return null;
+
+            int count = in.readInt();
+            Map<String, CustomRecipe> recipes = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                CustomRecipe recipe = readRecipe(in);
+                recipes.put(recipe.getName(), recipe);
+            }
+            return recipes;
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not read the recipe cache, loading recipes from YAML instead", e);
+            return null;
+        }
+    }
+
+    // Записи последовательные, отпечаток берётся до чтения, чтобы изменение за это время делало снимок устаревшим
+    public synchronized void write(RecipeStorage storage, long fingerprint, Map<String, CustomRecipe> recipes) {
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+
+            try (ObjectOutputStream out = new BukkitObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(DataVersionUpgrader.getDataVersion());
+                out.writeUTF(storage.getClass().getSimpleName());
+                out.writeLong(fingerprint);
+
+                out.writeInt(recipes.size());
+                for (CustomRecipe recipe : recipes.values()) {
+                    writeRecipe(out, recipe);
+                }
+            }
+
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not write the recipe cache", e);
+        }
+    }
+
+    private void writeRecipe(ObjectOutputStream out, CustomRecipe recipe) throws IOException {
+        out.writeUTF(recipe.getName());
+        out.writeUTF(recipe.getType().name());
+        out.writeObject(recipe.getOutput());
+
+        RecipeCodecs.get(recipe.getType()).writeCache(out, recipe);
+    }
+
+    private CustomRecipe readRecipe(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        String name = in.readUTF();
+        RecipeType type = RecipeType.valueOf(in.readUTF());
+        ItemStack output = (ItemStack) in.readObject();
+
+        return RecipeCodecs.get(type).readCache(name, type, output, in);
+    }
+}
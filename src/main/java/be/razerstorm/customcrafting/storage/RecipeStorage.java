@@ -0,0 +1,36 @@
+package be.razerstorm.customcrafting.storage;
+
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public interface RecipeStorage {
+
+    // Имена всех рецептов без чтения их содержимого
+    List<String> loadIndex();
+
+    // null, если рецепт не сохранён
+    ConfigurationSection loadRecipe(String recipeName);
+
+    // false, если рецепт точно не менялся с последней загрузки или записи
+    boolean hasChanged(String recipeName);
+
+    // Дешёвый отпечаток всего на диске, меняется при любом изменении рецепта
+    long fingerprint();
+
+    // Число предметов со старой версией данных в каждом рецепте
+    Map<String, Integer> countOutdatedItems(int dataVersion) throws IOException;
+
+    // Для рецептов, восстановленных без loadRecipe
+    default void markLoaded(String recipeName) {
+    }
+
+    // null удаляет рецепт, вызывается только из одного потока за раз
+    void write(Map<String, CustomRecipe> changes) throws IOException;
+
+    // Сбрасывает кэш, следующий вызов читает с диска
+    void invalidate();
+}
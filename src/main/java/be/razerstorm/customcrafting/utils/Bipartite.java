@@ -0,0 +1,47 @@
+package be.razerstorm.customcrafting.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+// Раздаёт предметы бесформенной сетки ингредиентам по одному, ингредиенты могут пересекаться, поэтому жадного выбора мало
+public final class Bipartite {
+
+    private Bipartite() {
+    }
+
+    // false, если размеры разные
+    public static <A, B> boolean hasPerfectMatching(List<A> items, List<B> ingredients, BiPredicate<B, A> accepts) {
+        int size = items.size();
+        if (size != ingredients.size()) return false;
+
+        boolean[][] edges = new boolean[size][size];
+        for (int item = 0; item < size; item++) {
+            boolean any = false;
+            for (int ingredient = 0; ingredient < size; ingredient++) {
+                edges[item][ingredient] = accepts.test(ingredients.get(ingredient), items.get(item));
+                any |= edges[item][ingredient];
+            }
+            if (!any) return false;
+        }
+
+        int[] owner = new int[size];
+        Arrays.fill(owner, -1);
+        for (int item = 0; item < size; item++) {
+            if (!assign(item, edges, owner, new boolean[size])) return false;
+        }
+        return true;
+    }
+
+    private static boolean assign(int item, boolean[][] edges, int[] owner, boolean[] visited) {
+        for (int ingredient = 0; ingredient < owner.length; ingredient++) {
+            if (!edges[item][ingredient] || visited[ingredient]) continue;
+            visited[ingredient] = true;
+            if (owner[ingredient] == -1 || assign(owner[ingredient], edges, owner, visited)) {
+                owner[ingredient] = item;
+                return true;
+            }
+        }
+        return false;
+    }
+}
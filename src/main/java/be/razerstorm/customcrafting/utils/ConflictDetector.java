@@ -0,0 +1,404 @@
+package be.razerstorm.customcrafting.utils;
+
+import be.razerstorm.customcrafting.enums.MatchMode;
+import be.razerstorm.customcrafting.enums.RecipeType;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.objects.IngredientMatch;
+import be.razerstorm.customcrafting.objects.RecipeConflict;
+import be.razerstorm.customcrafting.objects.RecipeShape;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.inventory.RecipeChoice;
+import org.bukkit.inventory.ShapedRecipe;
+import org.bukkit.inventory.ShapelessRecipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Находит наши рецепты, которые крафтятся той же сеткой, что и другой рецепт, с учётом отражения и режимов сравнения
+public class ConflictDetector {
+
+    private final Map<Integer, List<Grid<RecipeChoice>>> serverRecipes;
+    // Число ингредиентов -> бесформенные рецепты
+    private final Map<Integer, List<Ingredients<RecipeChoice>>> serverShapeless;
+
+    private ConflictDetector(Map<Integer, List<Grid<RecipeChoice>>> serverRecipes, Map<Integer, List<Ingredients<RecipeChoice>>> serverShapeless) {
+        this.serverRecipes = serverRecipes;
+        this.serverShapeless = serverShapeless;
+    }
+
+    // Снимок рецептов сервера и других плагинов без наших, только главный поток
+    public static ConflictDetector ofServerRecipes(String ownNamespace) {
+        Map<Integer, List<Grid<RecipeChoice>>> buckets = new HashMap<>();
+        Map<Integer, List<Ingredients<RecipeChoice>>> shapeless = new HashMap<>();
+        Iterator<Recipe> iterator = Bukkit.recipeIterator();
+        while (iterator.hasNext()) {
+            Recipe recipe = iterator.next();
+            if (recipe instanceof ShapelessRecipe) {
+                ShapelessRecipe other = (ShapelessRecipe) recipe;
+                if (other.getKey().getNamespace().equals(ownNamespace)) continue;
+
+                List<RecipeChoice> choices = other.getChoiceList();
+                shapeless.computeIfAbsent(choices.size(), key -> new ArrayList<>()).add(new Ingredients<>(other.getKey().toString(), choices));
+                continue;
+            }
+            if (!(recipe instanceof ShapedRecipe)) continue;
+
+            ShapedRecipe shaped = (ShapedRecipe) recipe;
+            if (shaped.getKey().getNamespace().equals(ownNamespace)) continue;
+
+            Map<Character, RecipeChoice> choices = shaped.getChoiceMap();
+            Grid<RecipeChoice> grid = Grid.of(shaped.getKey().toString(), shaped.getShape(), choices::get);
+            if (grid != null) buckets.computeIfAbsent(grid.bucket(false), key -> new ArrayList<>()).add(grid);
+        }
+        return new ConflictDetector(buckets, shapeless);
+    }
+
+    // Можно вызывать вне главного потока, параллельные стримы идут в вызывающем пуле
+    public List<RecipeConflict> detect(Collection<CustomRecipe> recipes) {
+        List<Grid<Cell>> grids = recipes.stream()
+                .filter(recipe -> recipe.getType() == RecipeType.CRAFTING)
+                .map(recipe -> Grid.of(recipe.getName(), recipe.getShape(), Cell.of(recipe)::get))
+                .filter(grid -> grid != null)
+                .collect(Collectors.toList());
+
+        List<RecipeConflict> conflicts = grids.parallelStream()
+                .flatMap(grid -> findServerConflicts(grid).stream())
+                .collect(Collectors.toList());
+
+        // Остальные ингредиенты пересекаются только с тем же материалом, рецепты без тегов группируются по раскладке материалов.
+        // Тег принимает несколько материалов, рецепты с ним сравниваются со всеми рецептами той же раскладки.
+        Map<Boolean, List<Grid<Cell>>> tagged = grids.stream()
+                .collect(Collectors.partitioningBy(grid -> Cell.anyTagged(grid.cells)));
+        conflicts.addAll(tagged.get(false).stream()
+                .collect(Collectors.groupingBy(Signature::of))
+                .values().parallelStream()
+                .filter(group -> group.size() > 1)
+                .flatMap(group -> findCustomConflicts(group).stream())
+                .collect(Collectors.toList()));
+        Map<Integer, List<Grid<Cell>>> layouts = grids.stream()
+                .collect(Collectors.groupingBy(grid -> grid.bucket(false)));
+        conflicts.addAll(tagged.get(true).parallelStream()
+                .flatMap(grid -> findTaggedConflicts(grid, layouts).stream())
+                .collect(Collectors.toList()));
+
+        List<Ingredients<Cell>> shapeless = recipes.stream()
+                .filter(recipe -> recipe.getType() == RecipeType.SHAPELESS)
+                .map(Ingredients::of)
+                .filter(ingredients -> !ingredients.items.isEmpty())
+                .collect(Collectors.toList());
+        conflicts.addAll(shapeless.parallelStream()
+                .flatMap(ingredients -> findShapelessServerConflicts(ingredients).stream())
+                .collect(Collectors.toList()));
+        Map<Boolean, List<Ingredients<Cell>>> taggedShapeless = shapeless.stream()
+                .collect(Collectors.partitioningBy(ingredients -> Cell.anyTagged(ingredients.items.toArray())));
+        conflicts.addAll(taggedShapeless.get(false).stream()
+                .collect(Collectors.groupingBy(Ingredients::materials))
+                .values().parallelStream()
+                .filter(group -> group.size() > 1)
+                .flatMap(group -> findShapelessCustomConflicts(group).stream())
+                .collect(Collectors.toList()));
+        Map<Integer, List<Ingredients<Cell>>> counts = shapeless.stream()
+                .collect(Collectors.groupingBy(ingredients -> ingredients.items.size()));
+        conflicts.addAll(taggedShapeless.get(true).parallelStream()
+                .flatMap(ingredients -> findShapelessTaggedConflicts(ingredients, counts).stream())
+                .collect(Collectors.toList()));
+
+        conflicts.sort(Comparator.comparing(RecipeConflict::getRecipe, String.CASE_INSENSITIVE_ORDER).thenComparing(RecipeConflict::getOther));
+        return conflicts;
+    }
+
+    private List<RecipeConflict> findServerConflicts(Grid<Cell> grid) {
+        List<RecipeConflict> conflicts = Collections.emptyList();
+        for (Grid<RecipeChoice> other : serverRecipes.getOrDefault(grid.bucket(false), Collections.emptyList())) {
+            if (matches(grid, false, other)) conflicts = add(conflicts, new RecipeConflict(grid.id, other.id, false));
+        }
+        for (Grid<RecipeChoice> other : serverRecipes.getOrDefault(grid.bucket(true), Collections.emptyList())) {
+            if (matches(grid, true, other) && !contains(conflicts, other.id)) conflicts = add(conflicts, new RecipeConflict(grid.id, other.id, false));
+        }
+        return conflicts;
+    }
+
+    private static boolean matches(Grid<Cell> grid, boolean mirrored, Grid<RecipeChoice> other) {
+        for (int row = 0; row < grid.shape.getHeight(); row++) {
+            for (int column = 0; column < grid.shape.getWidth(); column++) {
+                Cell cell = grid.get(row, column, mirrored);
+                RecipeChoice choice = other.get(row, column, false);
+                if (cell == null ? choice != null : choice == null || !cell.overlaps(choice)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<RecipeConflict> findCustomConflicts(List<Grid<Cell>> group) {
+        List<RecipeConflict> conflicts = new ArrayList<>();
+        for (int i = 0; i < group.size(); i++) {
+            for (int j = i + 1; j < group.size(); j++) {
+                Grid<Cell> first = group.get(i);
+                Grid<Cell> second = group.get(j);
+                if (similar(first, second, false) || similar(first, second, true)) {
+                    conflicts.add(new RecipeConflict(first.id, second.id, true));
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    // Два рецепта с тегами находят друг друга дважды, сообщает тот, чьё имя меньше
+    private static List<RecipeConflict> findTaggedConflicts(Grid<Cell> grid, Map<Integer, List<Grid<Cell>>> layouts) {
+        List<Grid<Cell>> candidates = layouts.getOrDefault(grid.bucket(false), Collections.emptyList());
+        if (grid.bucket(true) != grid.bucket(false)) {
+            candidates = Stream.concat(candidates.stream(), layouts.getOrDefault(grid.bucket(true), Collections.emptyList()).stream())
+                    .collect(Collectors.toList());
+        }
+
+        List<RecipeConflict> conflicts = Collections.emptyList();
+        for (Grid<Cell> other : candidates) {
+            if (other == grid || Cell.anyTagged(other.cells) && grid.id.compareTo(other.id) > 0) continue;
+            if (similar(grid, other, false) || similar(grid, other, true)) conflicts = add(conflicts, new RecipeConflict(grid.id, other.id, true));
+        }
+        return conflicts;
+    }
+
+    private static boolean similar(Grid<Cell> first, Grid<Cell> second, boolean mirrored) {
+        if (first.bucket(false) != second.bucket(mirrored)) return false;
+        for (int row = 0; row < first.shape.getHeight(); row++) {
+            for (int column = 0; column < first.shape.getWidth(); column++) {
+                Cell cell = first.get(row, column, false);
+                Cell other = second.get(row, column, mirrored);
+                if (cell == null ? other != null : other == null || !cell.overlaps(other)) return false;
+            }
+        }
+        return true;
+    }
+
+    private List<RecipeConflict> findShapelessServerConflicts(Ingredients<Cell> ingredients) {
+        List<RecipeConflict> conflicts = Collections.emptyList();
+        for (Ingredients<RecipeChoice> other : serverShapeless.getOrDefault(ingredients.items.size(), Collections.emptyList())) {
+            if (Bipartite.hasPerfectMatching(ingredients.items, other.items, (choice, cell) -> cell.overlaps(choice))) {
+                conflicts = add(conflicts, new RecipeConflict(ingredients.id, other.id, false));
+            }
+        }
+        return conflicts;
+    }
+
+    private static List<RecipeConflict> findShapelessCustomConflicts(List<Ingredients<Cell>> group) {
+        List<RecipeConflict> conflicts = new ArrayList<>();
+        for (int i = 0; i < group.size(); i++) {
+            for (int j = i + 1; j < group.size(); j++) {
+                Ingredients<Cell> first = group.get(i);
+                Ingredients<Cell> second = group.get(j);
+                if (Bipartite.hasPerfectMatching(first.items, second.items, Cell::overlaps)) {
+                    conflicts.add(new RecipeConflict(first.id, second.id, true));
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private static List<RecipeConflict> findShapelessTaggedConflicts(Ingredients<Cell> ingredients, Map<Integer, List<Ingredients<Cell>>> counts) {
+        List<RecipeConflict> conflicts = Collections.emptyList();
+        for (Ingredients<Cell> other : counts.getOrDefault(ingredients.items.size(), Collections.emptyList())) {
+            if (other == ingredients || Cell.anyTagged(other.items.toArray()) && ingredients.id.compareTo(other.id) > 0) continue;
+            if (Bipartite.hasPerfectMatching(ingredients.items, other.items, Cell::overlaps)) {
+                conflicts = add(conflicts, new RecipeConflict(ingredients.id, other.id, true));
+            }
+        }
+        return conflicts;
+    }
+
+    private static List<RecipeConflict> add(List<RecipeConflict> conflicts, RecipeConflict conflict) {
+        if (conflicts.isEmpty()) conflicts = new ArrayList<>();
+        conflicts.add(conflict);
+        return conflicts;
+    }
+
+    private static boolean contains(List<RecipeConflict> conflicts, String other) {
+        for (RecipeConflict conflict : conflicts) {
+            if (conflict.getOther().equals(other)) return true;
+        }
+        return false;
+    }
+
+    // Ингредиенты рецепта в клетках обрезанной формы, null для пустой клетки
+    private static final class Grid<T> {
+        private final String id;
+        private final RecipeShape shape;
+        private final Object[] cells;
+
+        private Grid(String id, RecipeShape shape, Object[] cells) {
+            this.id = id;
+            this.shape = shape;
+            this.cells = cells;
+        }
+
+        private static <T> Grid<T> of(String id, String[] shape, Function<Character, T> ingredients) {
+            RecipeShape trimmed = RecipeShape.of(shape, identifier -> ingredients.apply(identifier) != null);
+            if (trimmed == null) return null;
+
+            Object[] cells = new Object[trimmed.size()];
+            for (int i = 0; i < cells.length; i++) {
+                if (trimmed.get(i) != 0) cells[i] = ingredients.apply(trimmed.get(i));
+            }
+            return new Grid<>(id, trimmed, cells);
+        }
+
+        @SuppressWarnings("unchecked")
+        private T get(int row, int column, boolean mirrored) {
+            return (T) cells[shape.index(row, column, mirrored)];
+        }
+
+        private int bucket(boolean mirrored) {
+            return shape.layout(mirrored);
+        }
+    }
+
+    // Ингредиенты бесформенного рецепта, использованный дважды повторяется
+    private static final class Ingredients<T> {
+        private final String id;
+        private final List<T> items;
+
+        private Ingredients(String id, List<T> items) {
+            this.id = id;
+            this.items = items;
+        }
+
+        private static Ingredients<Cell> of(CustomRecipe recipe) {
+            Map<Character, Cell> cells = Cell.of(recipe);
+            List<Cell> items = new ArrayList<>();
+            for (char identifier : recipe.getIdentifiers()) {
+                items.add(cells.get(identifier));
+            }
+            return new Ingredients<>(recipe.getName(), items);
+        }
+
+        // Отсортированные материалы, одинаковые у рецептов без тегов, которые могут принять одни и те же предметы
+        private static List<Material> materials(Ingredients<Cell> ingredients) {
+            List<Material> materials = new ArrayList<>(ingredients.items.size());
+            for (Cell cell : ingredients.items) {
+                materials.add(cell.item.getType());
+            }
+            Collections.sort(materials);
+            return materials;
+        }
+    }
+
+    // Ингредиент нашего рецепта вместе с режимом сравнения
+    private static final class Cell {
+        private final ItemStack item;
+        // MATERIAL и TAG принимают любой предмет своих материалов, остальные - только похожие предметы
+        private final boolean materialOnly;
+        private final boolean tagged;
+        private final Set<Material> materials;
+        private final Predicate<ItemStack> test;
+
+        private Cell(ItemStack item, MatchMode mode, Set<Material> materials, Predicate<ItemStack> test) {
+            this.item = item;
+            this.materialOnly = mode == MatchMode.MATERIAL || mode == MatchMode.TAG;
+            this.tagged = mode == MatchMode.TAG;
+            this.materials = materials;
+            this.test = test;
+        }
+
+        private static Map<Character, Cell> of(CustomRecipe recipe) {
+            Map<Character, Cell> cells = new HashMap<>();
+            recipe.getIngredients().forEach((identifier, item) -> {
+                IngredientMatch match = recipe.getMatch(identifier);
+                cells.put(identifier, new Cell(item, match.getMode(), match.materials(item), other -> recipe.test(identifier, other)));
+            });
+            return cells;
+        }
+
+        private static boolean anyTagged(Object[] cells) {
+            for (Object cell : cells) {
+                if (cell != null && ((Cell) cell).tagged) return true;
+            }
+            return false;
+        }
+
+        // Есть ли предмет, который принимают оба. Каждый принимает свой предмет, а MATERIAL и TAG - любой своего материала,
+        // поэтому иначе достаточно проверить предмет другого.
+        private boolean overlaps(Cell other) {
+            if (materialOnly || other.materialOnly) return !Collections.disjoint(materials, other.materials);
+            return test.test(other.item) || other.test.test(item);
+        }
+
+        // Есть ли предмет, который принимают и этот ингредиент, и серверный RecipeChoice
+        private boolean overlaps(RecipeChoice choice) {
+            if (choice.test(item)) return true;
+
+            if (choice instanceof RecipeChoice.MaterialChoice) {
+                if (!materialOnly) return false;
+                for (Material material : ((RecipeChoice.MaterialChoice) choice).getChoices()) {
+                    if (materials.contains(material)) return true;
+                }
+            } else if (choice instanceof RecipeChoice.ExactChoice) {
+                for (ItemStack exact : ((RecipeChoice.ExactChoice) choice).getChoices()) {
+                    if (test.test(exact)) return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Размер и материалы сетки в ориентации, которая сортируется первой, одинаковые у отражённых копий
+    private static final class Signature {
+        private final int width;
+        private final Material[] materials;
+
+        private Signature(int width, Material[] materials) {
+            this.width = width;
+            this.materials = materials;
+        }
+
+        private static Signature of(Grid<Cell> grid) {
+            Material[] normal = new Material[grid.cells.length];
+            Material[] mirrored = new Material[grid.cells.length];
+            for (int row = 0; row < grid.shape.getHeight(); row++) {
+                for (int column = 0; column < grid.shape.getWidth(); column++) {
+                    Cell cell = grid.get(row, column, false);
+                    Cell mirroredCell = grid.get(row, column, true);
+                    normal[row * grid.shape.getWidth() + column] = cell == null ? null : cell.item.getType();
+                    mirrored[row * grid.shape.getWidth() + column] = mirroredCell == null ? null : mirroredCell.item.getType();
+                }
+            }
+            return new Signature(grid.shape.getWidth(), compare(normal, mirrored) <= 0 ? normal : mirrored);
+        }
+
+        private static int compare(Material[] first, Material[] second) {
+            for (int i = 0; i < first.length; i++) {
+                int a = first[i] == null ? -1 : first[i].ordinal();
+                int b = second[i] == null ? -1 : second[i].ordinal();
+                if (a != b) return Integer.compare(a, b);
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Signature)) return false;
+            Signature other = (Signature) o;
+            return width == other.width && Arrays.equals(materials, other.materials);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * width + Arrays.hashCode(materials);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.plugin.Plugin;
@@ -23,6 +24,15 @@ public abstract class GUIHolder implements InventoryHolder {
                 ((GUIHolder) event.getInventory().getHolder()).onClick(event);
             }
         }, plugin);
+        Bukkit.getPluginManager().registerEvents(new Listener() {
+            @EventHandler(priority = EventPriority.HIGH)
+            public void onDrag(InventoryDragEvent event) {
+                if (event.getInventory() == null) return;
+                if (event.getInventory().getHolder() == null) return;
+                if (!(event.getInventory().getHolder() instanceof GUIHolder)) return;
+                ((GUIHolder) event.getInventory().getHolder()).onDrag(event);
+            }
+        }, plugin);
         Bukkit.getPluginManager().registerEvents(new Listener() {
             @EventHandler
             public void onInventoryClose(InventoryCloseEvent event) {
@@ -45,6 +55,9 @@ public abstract class GUIHolder implements InventoryHolder {
 
     public abstract void onInventoryClose(InventoryCloseEvent event);
 
+    public void onDrag(InventoryDragEvent event) {
+    }
+
     public void open(Player player){
         player.openInventory(inventory);
     }
@@ -0,0 +1,12 @@
+package be.razerstorm.customcrafting.utils;
+
+import org.bukkit.inventory.ItemStack;
+
+public class ItemFingerprint {
+
+    // Хэш материала и меты без количества, у похожих предметов отпечаток общий, у разных может совпасть
+    public static int of(ItemStack item) {
+        int hash = item.getType().ordinal();
+        return item.hasItemMeta() ? hash * 31 + item.getItemMeta().hashCode() : hash;
+    }
+}
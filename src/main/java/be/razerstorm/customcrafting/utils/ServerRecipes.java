@@ -0,0 +1,112 @@
+package be.razerstorm.customcrafting.utils;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.Server;
+import org.bukkit.inventory.Recipe;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+// Добавляет и удаляет рецепты сервера пачками, на Paper книга рецептов отправляется один раз в конце пачки
+public abstract class ServerRecipes {
+
+    public static ServerRecipes of(Server server) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            return new Batched(
+                    lookup.findVirtual(Server.class, "addRecipe", MethodType.methodType(boolean.class, Recipe.class, boolean.class)).bindTo(server),
+                    lookup.findVirtual(Server.class, "removeRecipe", MethodType.methodType(boolean.class, NamespacedKey.class, boolean.class)).bindTo(server),
+                    lookup.findVirtual(Server.class, "updateRecipes", MethodType.methodType(void.class)).bindTo(server)
+            );
+        } catch (ReflectiveOperationException e) {
+            return new Immediate(server);
+        }
+    }
+
+    public abstract void add(Recipe recipe);
+
+    public abstract void remove(NamespacedKey key);
+
+    // Отправляет игрокам изменения с последнего вызова
+    public abstract void update();
+
+    public abstract boolean isBatched();
+
+    private static final class Immediate extends ServerRecipes {
+        private final Server server;
+
+        private Immediate(Server server) {
+            this.server = server;
+        }
+
+        @Override
+        public void add(Recipe recipe) {
+            server.addRecipe(recipe);
+        }
+
+        @Override
+        public void remove(NamespacedKey key) {
+            server.removeRecipe(key);
+        }
+
+        @Override
+        public void update() {
+        }
+
+        @Override
+        public boolean isBatched() {
+            return false;
+        }
+    }
+
+    private static final class Batched extends ServerRecipes {
+        private final MethodHandle addRecipe;
+        private final MethodHandle removeRecipe;
+        private final MethodHandle updateRecipes;
+
+        private Batched(MethodHandle addRecipe, MethodHandle removeRecipe, MethodHandle updateRecipes) {
+            this.addRecipe = addRecipe;
+            this.removeRecipe = removeRecipe;
+            this.updateRecipes = updateRecipes;
+        }
+
+        @Override
+        public void add(Recipe recipe) {
+            try {
+                boolean ignored = (boolean) addRecipe.invokeExact(recipe, false);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void remove(NamespacedKey key) {
+            try {
+                boolean ignored = (boolean) removeRecipe.invokeExact(key, false);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void update() {
+            try {
+                updateRecipes.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean isBatched() {
+            return true;
+        }
+    }
+}
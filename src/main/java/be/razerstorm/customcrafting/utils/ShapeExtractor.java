@@ -0,0 +1,40 @@
+package be.razerstorm.customcrafting.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Превращает сетку 3x3 в строки формы, давая каждому ключу свою букву
+public class ShapeExtractor<K> {
+
+    public static final int SIZE = 3;
+
+    private final Map<K, Character> letters = new HashMap<>();
+
+    // grid - ключи SIZE x SIZE построчно, null для пустого слота
+    public String[] extract(K[] grid) {
+        String[] shape = new String[SIZE];
+        for (int row = 0; row < SIZE; row++) {
+            StringBuilder rowString = new StringBuilder(SIZE);
+            for (int column = 0; column < SIZE; column++) {
+                K key = grid[row * SIZE + column];
+                rowString.append(key == null ? ' ' : getLetter(key));
+            }
+            shape[row] = rowString.toString();
+        }
+        return shape;
+    }
+
+    public char getLetter(K key) {
+        Character letter = letters.get(key);
+        if (letter != null) {
+            return letter;
+        }
+
+        char ingredientLetter = 'A';
+        while (letters.containsValue(ingredientLetter)) {
+            ingredientLetter++;
+        }
+        letters.put(key, ingredientLetter);
+        return ingredientLetter;
+    }
+}
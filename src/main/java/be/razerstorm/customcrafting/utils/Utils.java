@@ -2,11 +2,29 @@ package be.razerstorm.customcrafting.utils;
 
 import org.bukkit.ChatColor;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
 public class Utils {
     public static String color(String s) {
         return ChatColor.translateAlternateColorCodes('&', s);
     }
 
+    public static List<String> filterByPrefix(Collection<String> values, String prefix) {
+        String lowerPrefix = prefix.toLowerCase();
+        return values.stream()
+                .filter(s -> s.toLowerCase().startsWith(lowerPrefix))
+                .collect(Collectors.toList());
+    }
+
     public static boolean isInteger(String s) {
         try {
             Integer.parseInt(s);
@@ -15,4 +33,15 @@ public class Utils {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    public static void writeAtomically(File file, String data) throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        Files.write(temp, data.getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package be.razerstorm.customcrafting.utils;
+
+import be.razerstorm.customcrafting.enums.MatchMode;
+import be.razerstorm.customcrafting.objects.CustomRecipe;
+import be.razerstorm.customcrafting.objects.IngredientMatch;
+import be.razerstorm.customcrafting.objects.RecipeConflict;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConflictDetectorTest {
+
+    @BeforeAll
+    static void installServer() {
+        TestServer.install();
+    }
+
+    @Test
+    void reportsOverlappingMaterialRecipes() {
+        CustomRecipe plain = sword("plain_sword", new ItemStack(Material.DIAMOND), MatchMode.MATERIAL);
+        CustomRecipe named = sword("named_sword", named(Material.DIAMOND, "Ruby"), MatchMode.MATERIAL);
+
+        List<RecipeConflict> conflicts = detect(plain, named);
+
+        assertEquals(1, conflicts.size());
+        assertTrue(conflicts.get(0).isCustom());
+        assertEquals(new HashSet<>(Arrays.asList("plain_sword", "named_sword")),
+                new HashSet<>(Arrays.asList(conflicts.get(0).getRecipe(), conflicts.get(0).getOther())));
+    }
+
+    @Test
+    void reportsExactRecipeOverlappingMaterialRecipe() {
+        CustomRecipe plain = sword("plain_sword", new ItemStack(Material.DIAMOND), MatchMode.MATERIAL);
+        CustomRecipe named = sword("named_sword", named(Material.DIAMOND, "Ruby"), MatchMode.EXACT);
+
+        assertEquals(1, detect(plain, named).size());
+    }
+
+    @Test
+    void ignoresDifferentExactRecipes() {
+        CustomRecipe plain = sword("plain_sword", new ItemStack(Material.DIAMOND), MatchMode.EXACT);
+        CustomRecipe named = sword("named_sword", named(Material.DIAMOND, "Ruby"), MatchMode.EXACT);
+
+        assertTrue(detect(plain, named).isEmpty());
+    }
+
+    @Test
+    void reportsOverlappingShapelessMaterialRecipes() {
+        CustomRecipe plain = dust("plain_dust", new ItemStack(Material.DIAMOND), MatchMode.MATERIAL);
+        CustomRecipe named = dust("named_dust", named(Material.DIAMOND, "Ruby"), MatchMode.MATERIAL);
+
+        assertEquals(1, detect(plain, named).size());
+    }
+
+    private static List<RecipeConflict> detect(CustomRecipe... recipes) {
+        return ConflictDetector.ofServerRecipes("customcrafting").detect(Arrays.asList(recipes));
+    }
+
+    private static CustomRecipe sword(String name, ItemStack gem, MatchMode mode) {
+        Map<Character, ItemStack> ingredients = new HashMap<>();
+        ingredients.put('A', gem);
+        ingredients.put('B', new ItemStack(Material.STICK));
+        return CustomRecipe.crafting(name, new ItemStack(Material.DIAMOND_SWORD), ingredients,
+                Collections.singletonMap('A', IngredientMatch.of(mode, null, null)), " A ", " A ", " B ");
+    }
+
+    private static CustomRecipe dust(String name, ItemStack gem, MatchMode mode) {
+        Map<Character, ItemStack> ingredients = new HashMap<>();
+        ingredients.put('A', gem);
+        ingredients.put('B', new ItemStack(Material.REDSTONE));
+        return CustomRecipe.shapeless(name, new ItemStack(Material.GLOWSTONE_DUST), ingredients,
+                Collections.singletonMap('A', IngredientMatch.of(mode, null, null)), "AB");
+    }
+
+    private static ItemStack named(Material material, String displayName) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName(displayName);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    // Сервер, которого хватает, чтобы создавать, копировать и сравнивать предметы с именем
+    private static final class TestServer {
+
+        private static synchronized void install() {
+            if (Bukkit.getServer() != null) return;
+
+            ItemFactory itemFactory = (ItemFactory) Proxy.newProxyInstance(ItemFactory.class.getClassLoader(), new Class<?>[]{ItemFactory.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getItemMeta":
+                                return Meta.create(new HashMap<>());
+                            case "equals":
+                                if (args.length == 2) return Meta.values(args[0]).equals(Meta.values(args[1]));
+                                return proxy == args[0];
+                            case "isApplicable":
+                                return true;
+                            case "asMetaFor":
+                                return args[0];
+                            case "updateMaterial":
+                                return args[1];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                return defaultValue(method.getReturnType());
+                        }
+                    });
+
+            Logger logger = Logger.getLogger("Test");
+            Server server = (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[]{Server.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getItemFactory":
+                                return itemFactory;
+                            case "getLogger":
+                                return logger;
+                            case "recipeIterator":
+                                return Collections.emptyIterator();
+                            case "getName":
+                            case "getVersion":
+                            case "getBukkitVersion":
+                                return "Test";
+                            default:
+                                return defaultValue(method.getReturnType());
+                        }
+                    });
+
+            Bukkit.setServer(server);
+        }
+
+        private static Object defaultValue(Class<?> type) {
+            if (type == boolean.class) return false;
+            if (type == int.class) return 0;
+            if (type == long.class) return 0L;
+            if (type == double.class) return 0D;
+            if (type == float.class) return 0F;
+            if (type == short.class) return (short) 0;
+            if (type == byte.class) return (byte) 0;
+            if (type == char.class) return (char) 0;
+            return null;
+        }
+    }
+
+    // Мета только с именем, сравнивается по значению, как на сервере
+    private static final class Meta implements InvocationHandler {
+        private final Map<String, Object> values;
+
+        private Meta(Map<String, Object> values) {
+            this.values = values;
+        }
+
+        private static ItemMeta create(Map<String, Object> values) {
+            return (ItemMeta) Proxy.newProxyInstance(ItemMeta.class.getClassLoader(), new Class<?>[]{ItemMeta.class, Damageable.class}, new Meta(values));
+        }
+
+        private static Map<String, Object> values(Object meta) {
+            if (meta == null) return Collections.emptyMap();
+            return ((Meta) Proxy.getInvocationHandler(meta)).values;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "clone":
+                    return create(new HashMap<>(values));
+                case "setDisplayName":
+                    values.put("display-name", args[0]);
+                    return null;
+                case "getDisplayName":
+                    return values.get("display-name");
+                case "hasDisplayName":
+                    return values.containsKey("display-name");
+                case "equals":
+                    return args[0] != null && Proxy.isProxyClass(args[0].getClass())
+                            && Proxy.getInvocationHandler(args[0]) instanceof Meta && values.equals(values(args[0]));
+                case "hashCode":
+                    return values.hashCode();
+                case "toString":
+                    return "Meta" + values;
+                default:
+                    return TestServer.defaultValue(method.getReturnType());
+            }
+        }
+    }
+}